@@ -0,0 +1,87 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fulfilment.application.monolith.products.Product;
+import com.fulfilment.application.monolith.stores.Store;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JSON serialisation of association lists as the REST layer writes them: the entities with
+ * their product and store, and the flat {@link FulfilmentAssociationView} rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AssociationSerializationBenchmark {
+
+    @Param({"10", "1000"})
+    int size;
+
+    // configured like the Quarkus default mapper
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(SerializationFeature.FAIL_ON_EMPTY_BEANS)
+            .build();
+
+    private List<ProductWarehouseStoreAssociation> associations;
+    private List<FulfilmentAssociationView> views;
+
+    @Setup
+    public void setUp() {
+        Store store = new Store("STORE-1");
+        store.id = 1L;
+        store.quantityProductsInStock = 250;
+
+        associations = new ArrayList<>(size);
+        views = new ArrayList<>(size);
+        LocalDateTime createdAt = LocalDateTime.of(2024, 7, 1, 12, 0);
+        for (int i = 0; i < size; i++) {
+            Product product = new Product("PRODUCT-" + i);
+            product.id = (long) i;
+            product.description = "Benchmark product " + i;
+            product.price = BigDecimal.valueOf(1999, 2);
+            product.stock = 10;
+
+            ProductWarehouseStoreAssociation association =
+                    new ProductWarehouseStoreAssociation(product, (long) i % 5 + 1, store);
+            association.id = (long) i;
+            association.createdAt = createdAt;
+            associations.add(association);
+
+            views.add(new FulfilmentAssociationView(association.id, product.id, product.name,
+                    association.warehouseId, store.id, store.name, createdAt));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeEntities() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(associations);
+    }
+
+    @Benchmark
+    public byte[] serializeViews() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(views);
+    }
+}
@@ -0,0 +1,112 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+import com.fulfilment.application.monolith.products.Product;
+import com.fulfilment.application.monolith.stores.Store;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.transaction.Status;
+import jakarta.ws.rs.WebApplicationException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The constraint checks of {@link FulfilmentService#createAssociation}: striped locks, the
+ * in-memory index verdict and the index bookkeeping, with persistence left out.
+ * Every call is rolled back, so the index stays as set up.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FulfilmentServiceBenchmark {
+
+    private static final int STORES = 1_000;
+
+    private final SimulatedTransaction transaction = new SimulatedTransaction();
+    private FulfilmentService service;
+
+    private Product product;
+    private Store openStore;
+    private Store fullStore;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        FulfilmentConstraintIndex index = new FulfilmentConstraintIndex();
+        index.txRegistry = transaction;
+
+        // every store already has associations; the full one is at its warehouse limit
+        for (long storeId = 1; storeId <= STORES; storeId++) {
+            index.add(1L, storeId, storeId);
+        }
+        index.add(2L, 2_001L, 0L);
+        index.add(2L, 2_002L, 0L);
+        index.add(3L, 2_003L, 0L);
+
+        service = new FulfilmentService();
+        service.constraintIndex = index;
+        service.meterRegistry = new SimpleMeterRegistry();
+        service.fulfilmentRepository = new FulfilmentRepository() {
+            @Override
+            public void persist(ProductWarehouseStoreAssociation association) {
+                // no database, the association only needs an id for the index
+                association.id = 1L;
+            }
+        };
+
+        product = product(4L);
+        openStore = store(1L);
+        fullStore = store(0L);
+    }
+
+    @TearDown
+    public void tearDown() {
+        transaction.complete(Status.STATUS_ROLLEDBACK);
+    }
+
+    @Benchmark
+    public ProductWarehouseStoreAssociation createAllowed() {
+        openStore.id = 1L + next;
+        next = (next + 1) % STORES;
+        try {
+            return service.createAssociation(product, openStore.id, openStore);
+        } finally {
+            transaction.complete(Status.STATUS_ROLLEDBACK);
+        }
+    }
+
+    @Benchmark
+    public int createRejected() {
+        try {
+            service.createAssociation(product, 2_004L, fullStore);
+            throw new IllegalStateException("Association should have been rejected");
+        } catch (WebApplicationException e) {
+            return e.getResponse().getStatus();
+        } finally {
+            transaction.complete(Status.STATUS_ROLLEDBACK);
+        }
+    }
+
+    private static Product product(Long id) {
+        Product product = new Product("BENCH-PRODUCT");
+        product.id = id;
+        return product;
+    }
+
+    private static Store store(Long id) {
+        Store store = new Store("BENCH-STORE");
+        store.id = id;
+        return store;
+    }
+}
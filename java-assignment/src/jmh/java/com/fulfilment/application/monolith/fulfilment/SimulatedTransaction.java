@@ -0,0 +1,64 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A transaction that is always active until {@link #complete} runs its synchronizations,
+ * standing in for the JTA registry of {@link FulfilmentConstraintIndex}. Not thread safe.
+ */
+class SimulatedTransaction implements TransactionSynchronizationRegistry {
+
+    private final Map<Object, Object> resources = new HashMap<>();
+    private final List<Synchronization> synchronizations = new ArrayList<>();
+
+    /**
+     * End the transaction with the given {@link Status} and start the next one.
+     */
+    void complete(int status) {
+        synchronizations.forEach(Synchronization::beforeCompletion);
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+        synchronizations.clear();
+        resources.clear();
+    }
+
+    @Override
+    public Object getTransactionKey() {
+        return this;
+    }
+
+    @Override
+    public void putResource(Object key, Object value) {
+        resources.put(key, value);
+    }
+
+    @Override
+    public Object getResource(Object key) {
+        return resources.get(key);
+    }
+
+    @Override
+    public void registerInterposedSynchronization(Synchronization sync) {
+        synchronizations.add(sync);
+    }
+
+    @Override
+    public int getTransactionStatus() {
+        return Status.STATUS_ACTIVE;
+    }
+
+    @Override
+    public void setRollbackOnly() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean getRollbackOnly() {
+        return false;
+    }
+}
@@ -0,0 +1,41 @@
+package com.fulfilment.application.monolith.location;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Lookups in the built-in location registry.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocationGatewayBenchmark {
+
+    private final LocationGateway gateway = new LocationGateway();
+
+    // not final, so the identifiers are not constant-folded into the benchmark
+    private String canonicalIdentifier = "AMSTERDAM-001";
+    private String mixedCaseIdentifier = "Amsterdam-001";
+
+    @Benchmark
+    public Location resolveCanonical() {
+        return gateway.resolveByIdentifier(canonicalIdentifier);
+    }
+
+    @Benchmark
+    public Location resolveMixedCase() {
+        return gateway.resolveByIdentifier(mixedCaseIdentifier);
+    }
+}
@@ -0,0 +1,71 @@
+package com.fulfilment.application.monolith.stores;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Legacy store journal throughput: a batch of appends followed by one sync, the way the outbox
+ * dispatcher writes a batch of store changes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LegacyStoreJournalBenchmark {
+
+    private static final String RECORD = "{\"change\":\"Store updated.\","
+            + "\"idempotencyKey\":\"3f1c2a9e-5b7d-4e8f-9a0b-1c2d3e4f5a6b\","
+            + "\"storeId\":42,\"name\":\"TONSTAD\",\"quantityProductsInStock\":10}";
+
+    @Param({"1", "100"})
+    int batchSize;
+
+    private Path directory;
+    private LegacyStoreJournal journal;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("legacy-store-journal");
+        journal = new LegacyStoreJournal(directory, 64L * 1024 * 1024);
+        journal.open();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        journal.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public long appendBatchAndSync() {
+        long ticket = 0;
+        for (int i = 0; i < batchSize; i++) {
+            ticket = journal.append(RECORD);
+        }
+        journal.sync(ticket);
+        return ticket;
+    }
+}
@@ -0,0 +1,119 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fulfilment.application.monolith.warehouses.adapters.database.DbWarehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseSnapshot;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mapping and writing a warehouse listing from the column values a query yields: through managed
+ * entities, the domain {@link Warehouse} and the REST bean list, as the listing built from
+ * {@code WarehouseRepository.getAll()} before, and through {@link WarehouseSnapshot} rows streamed by
+ * {@link WarehouseResourceImpl#writeWarehouse}. Compare the allocation rate with
+ * {@code -Djmh.args="WarehouseListing -prof gc"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WarehouseListingBenchmark {
+
+    private static final String LOCATION = "AMSTERDAM-001";
+
+    @Param({"100000"})
+    int rows;
+
+    // configured like the Quarkus default mapper
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    // column values as the JDBC driver hands them over, shared by both paths
+    private Long[] ids;
+    private String[] businessUnitCodes;
+    private Integer[] capacities;
+    private Integer[] stocks;
+    private LocalDateTime createdAt;
+
+    @Setup
+    public void setUp() {
+        ids = new Long[rows];
+        businessUnitCodes = new String[rows];
+        capacities = new Integer[rows];
+        stocks = new Integer[rows];
+        createdAt = LocalDateTime.of(2024, 7, 1, 12, 0);
+        for (int i = 0; i < rows; i++) {
+            ids[i] = (long) i + 1;
+            businessUnitCodes[i] = "ALLOC-" + i;
+            capacities[i] = 100 + i % 500;
+            stocks[i] = i % 100;
+        }
+    }
+
+    @Benchmark
+    public int entities() throws IOException {
+        List<Warehouse> warehouses = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            DbWarehouse entity = new DbWarehouse();
+            entity.id = ids[i];
+            entity.businessUnitCode = businessUnitCodes[i];
+            entity.activeBusinessUnitCode = businessUnitCodes[i];
+            entity.location = LOCATION;
+            entity.capacity = capacities[i];
+            entity.stock = stocks[i];
+            entity.createdAt = createdAt;
+            entity.version = 0L;
+            warehouses.add(entity.toWarehouse());
+        }
+
+        List<com.warehouse.api.beans.Warehouse> response = new ArrayList<>(warehouses.size());
+        for (Warehouse warehouse : warehouses) {
+            var bean = new com.warehouse.api.beans.Warehouse();
+            bean.setId(String.valueOf(warehouse.id));
+            bean.setBusinessUnitCode(warehouse.businessUnitCode);
+            bean.setLocation(warehouse.location);
+            bean.setCapacity(warehouse.capacity);
+            bean.setStock(warehouse.stock);
+            response.add(bean);
+        }
+        objectMapper.writeValue(OutputStream.nullOutputStream(), response);
+        return response.size();
+    }
+
+    @Benchmark
+    public int snapshots() throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(OutputStream.nullOutputStream())) {
+            generator.writeStartArray();
+            for (int i = 0; i < rows; i++) {
+                WarehouseSnapshot snapshot = new WarehouseSnapshot(
+                        ids[i], businessUnitCodes[i], LOCATION, capacities[i], stocks[i]);
+                WarehouseResourceImpl.writeWarehouse(generator, snapshot, WarehouseResourceImpl.FIELDS);
+            }
+            generator.writeEndArray();
+        }
+        return rows;
+    }
+}
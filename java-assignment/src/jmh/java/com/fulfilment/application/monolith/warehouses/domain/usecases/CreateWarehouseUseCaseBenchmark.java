@@ -0,0 +1,69 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import com.fulfilment.application.monolith.location.LocationGateway;
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The validation path of {@link CreateWarehouseUseCase#create} with a real {@link LocationGateway}
+ * and in-memory store and ledger.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CreateWarehouseUseCaseBenchmark {
+
+    private static final String LOCATION = "BENCH-001";
+    private static final int CODES = 1024;
+
+    private final String[] businessUnitCodes = new String[CODES];
+
+    private InMemoryWarehouseStore store;
+    private CreateWarehouseUseCase useCase;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void createCodes() {
+        for (int i = 0; i < CODES; i++) {
+            businessUnitCodes[i] = "BENCH-" + i;
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        // limits high enough that no iteration runs into them
+        LocationGateway gateway = new LocationGateway();
+        gateway.reload(List.of(new Location(LOCATION, Integer.MAX_VALUE, Integer.MAX_VALUE)));
+
+        store = new InMemoryWarehouseStore();
+        useCase = new CreateWarehouseUseCase(store, gateway, new InMemoryCapacityLedger());
+    }
+
+    @Benchmark
+    public Warehouse create() {
+        Warehouse warehouse = new Warehouse(businessUnitCodes[next], LOCATION, 10, 5, null);
+        next = (next + 1) % CODES;
+
+        useCase.create(warehouse);
+
+        // frees the code for reuse and keeps the store at a constant size
+        store.remove(warehouse);
+        return warehouse;
+    }
+}
@@ -0,0 +1,27 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationOccupancy;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationCapacityLedger;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Location totals in a hash map. There is no transaction to hold a lock for, so
+ * {@link #lock} only reads. Not thread safe.
+ */
+class InMemoryCapacityLedger implements LocationCapacityLedger {
+
+    private final Map<String, LocationOccupancy> totals = new HashMap<>();
+
+    @Override
+    public LocationOccupancy lock(String location) {
+        return totals.computeIfAbsent(location, key -> new LocationOccupancy(0, 0));
+    }
+
+    @Override
+    public void adjust(String location, int warehouses, int capacity) {
+        LocationOccupancy occupancy = lock(location);
+        occupancy.numberOfWarehouses += warehouses;
+        occupancy.totalCapacity += capacity;
+    }
+}
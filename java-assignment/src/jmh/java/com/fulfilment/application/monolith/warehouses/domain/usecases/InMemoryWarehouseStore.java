@@ -0,0 +1,96 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationOccupancy;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseSnapshot;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Active warehouses kept in a hash map by business unit code, so the use cases are measured
+ * without a database. Not thread safe.
+ */
+class InMemoryWarehouseStore implements WarehouseStore {
+
+    private final Map<String, Warehouse> active = new HashMap<>();
+    private long sequence;
+
+    @Override
+    public List<Warehouse> getAll() {
+        return new ArrayList<>(active.values());
+    }
+
+    @Override
+    public void forEachActive(String location, long afterId, int limit, Consumer<WarehouseSnapshot> action) {
+        active.values().stream()
+                .filter(warehouse -> warehouse.id > afterId)
+                .filter(warehouse -> location == null || location.equals(warehouse.location))
+                .sorted((a, b) -> Long.compare(a.id, b.id))
+                .limit(limit)
+                .map(warehouse -> new WarehouseSnapshot(warehouse.id, warehouse.businessUnitCode,
+                        warehouse.location, warehouse.capacity, warehouse.stock))
+                .forEach(action);
+    }
+
+    @Override
+    public void create(Warehouse warehouse) {
+        warehouse.id = ++sequence;
+        warehouse.version = 0L;
+        active.put(warehouse.businessUnitCode, warehouse);
+    }
+
+    @Override
+    public void update(Warehouse warehouse) {
+        if (warehouse.archivedAt != null) {
+            active.remove(warehouse.businessUnitCode);
+        } else {
+            active.put(warehouse.businessUnitCode, warehouse);
+        }
+    }
+
+    /**
+     * Forget a warehouse, so benchmarks can reuse its business unit code.
+     */
+    @Override
+    public void remove(Warehouse warehouse) {
+        active.remove(warehouse.businessUnitCode);
+    }
+
+    @Override
+    public void replace(Warehouse current, Warehouse replacement) {
+        update(current);
+        create(replacement);
+    }
+
+    @Override
+    public Warehouse findByBusinessUnitCode(String buCode) {
+        return active.get(buCode);
+    }
+
+    @Override
+    public Warehouse findActiveById(Long id) {
+        for (Warehouse warehouse : active.values()) {
+            if (warehouse.id.equals(id)) {
+                return warehouse;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public LocationOccupancy occupancyOf(String location) {
+        long warehouses = 0;
+        long capacity = 0;
+        for (Warehouse warehouse : active.values()) {
+            if (location.equals(warehouse.location)) {
+                warehouses++;
+                capacity += warehouse.capacity;
+            }
+        }
+        return new LocationOccupancy(warehouses, capacity);
+    }
+}
@@ -0,0 +1,130 @@
+package com.fulfilment.application.monolith.catalog;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fulfilment.application.monolith.products.Product;
+import com.fulfilment.application.monolith.stores.Store;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.mutiny.sqlclient.Pool;
+import io.vertx.mutiny.sqlclient.Row;
+import io.vertx.mutiny.sqlclient.RowSet;
+import io.vertx.mutiny.sqlclient.Tuple;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Catalog reads on the event loop. With {@code catalog.reads=reactive}, GET /store, /store/{id},
+ * /product and /product/{id} are answered here with the reactive PostgreSQL client, ahead of
+ * the StoreResource and ProductResource, so they need no worker thread.
+ * <p>
+ * Rows are mapped to the entities and written with the application's ObjectMapper, so the
+ * responses match those of the resources. An id that is not a number or not found is passed on
+ * to the resource, which answers it as usual. These reads bypass the second-level cache. The
+ * queries are plain SQL because Hibernate Reactive cannot run next to Hibernate ORM here.
+ */
+@ApplicationScoped
+public class ReactiveCatalogRoutes {
+
+  private static final Logger LOGGER = Logger.getLogger(ReactiveCatalogRoutes.class.getName());
+
+  static final String REACTIVE = "reactive";
+
+  private static final String JSON = "application/json";
+  private static final String JSON_UTF8 = "application/json;charset=UTF-8";
+
+  static final String STORE_COLUMNS = "SELECT id, name, quantityProductsInStock FROM store";
+  static final String PRODUCT_COLUMNS = "SELECT id, name, description, price, stock FROM product";
+
+  @ConfigProperty(name = "catalog.reads", defaultValue = "blocking")
+  String catalogReads;
+
+  @Inject Instance<Pool> pool;
+
+  @Inject ObjectMapper objectMapper;
+
+  void registerRoutes(@Observes Router router) {
+    if (!REACTIVE.equals(catalogReads)) {
+      return;
+    }
+    if (!pool.isResolvable()) {
+      throw new IllegalStateException("catalog.reads=reactive needs a reactive PostgreSQL datasource");
+    }
+    Pool client = pool.get();
+    route(router, "/store", client, STORE_COLUMNS, ReactiveCatalogRoutes::toStore);
+    route(router, "/product", client, PRODUCT_COLUMNS, ReactiveCatalogRoutes::toProduct);
+    LOGGER.info("Catalog reads served on the event loop by the reactive PostgreSQL client");
+  }
+
+  private <T> void route(Router router, String path, Pool client, String select, Function<Row, T> mapper) {
+    String list = select + " ORDER BY name";
+    String single = select + " WHERE id = $1";
+
+    router.get(path).produces(JSON).handler(context -> client.query(list).execute()
+            .subscribe().with(rows -> respond(context, map(rows, mapper)), context::fail));
+
+    router.get(path + "/:id").produces(JSON).handler(context -> {
+      Long id = parseId(context.pathParam("id"));
+      if (id == null) {
+        context.next();
+        return;
+      }
+      client.preparedQuery(single).execute(Tuple.of(id))
+              .subscribe().with(rows -> {
+                if (rows.size() == 0) {
+                  context.next();
+                } else {
+                  respond(context, mapper.apply(rows.iterator().next()));
+                }
+              }, context::fail);
+    });
+  }
+
+  private void respond(RoutingContext context, Object body) {
+    try {
+      context.response().putHeader("Content-Type", JSON_UTF8).end(objectMapper.writeValueAsString(body));
+    } catch (JsonProcessingException e) {
+      context.fail(e);
+    }
+  }
+
+  private static <T> List<T> map(RowSet<Row> rows, Function<Row, T> mapper) {
+    List<T> items = new ArrayList<>(rows.size());
+    for (Row row : rows) {
+      items.add(mapper.apply(row));
+    }
+    return items;
+  }
+
+  private static Long parseId(String id) {
+    try {
+      return Long.valueOf(id);
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  // columns in the order of the SELECTs above
+  static Store toStore(Row row) {
+    Store store = new Store(row.getString(1));
+    store.id = row.getLong(0);
+    store.quantityProductsInStock = row.getInteger(2);
+    return store;
+  }
+
+  static Product toProduct(Row row) {
+    Product product = new Product(row.getString(1));
+    product.id = row.getLong(0);
+    product.description = row.getString(2);
+    product.price = row.getBigDecimal(3);
+    product.stock = row.getInteger(4);
+    return product;
+  }
+}
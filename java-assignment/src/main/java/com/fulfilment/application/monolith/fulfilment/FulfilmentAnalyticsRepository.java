@@ -2,37 +2,68 @@ package com.fulfilment.application.monolith.fulfilment;
 
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.TransactionSynchronizationRegistry;
 
 /**
  * Repository for querying fulfillment statistics and reports.
+ * Outside a transaction statistics are read in constant time from the counters of
+ * {@link FulfilmentConstraintIndex}. Those only change when a create or delete made through
+ * {@link FulfilmentService} commits, so they inherit the index's limits: rows written past the
+ * service are not counted, and each JVM counts the rows it has been told about.
+ * Inside an active transaction the association table is counted instead, so a caller sees its
+ * own uncommitted rows and every row the database holds.
  */
 @ApplicationScoped
 public class FulfilmentAnalyticsRepository implements PanacheRepository<ProductWarehouseStoreAssociation> {
 
+    @Inject
+    FulfilmentConstraintIndex constraintIndex;
+
+    @Inject
+    TransactionSynchronizationRegistry txRegistry;
+
     /**
      * Get fulfillment statistics for a store.
      */
     public long countAssociationsForStore(Long storeId) {
-        return count("store.id = ?1", storeId);
+        if (inTransaction()) {
+            return count("store.id = ?1", storeId);
+        }
+        return constraintIndex.countAssociationsForStore(storeId);
     }
 
     /**
      * Get fulfillment statistics for a product.
      */
     public long countAssociationsForProduct(Long productId) {
-        return count("product.id = ?1", productId);
+        if (inTransaction()) {
+            return count("product.id = ?1", productId);
+        }
+        return constraintIndex.countAssociationsForProduct(productId);
     }
 
     /**
      * Get average number of warehouses per product.
      */
     public double getAverageWarehousesPerProduct() {
-        Long totalAssociations = count();
-        Long totalProducts = getEntityManager()
-                .createQuery("SELECT COUNT(DISTINCT p.id) FROM ProductWarehouseStoreAssociation a JOIN a.product p", Long.class)
-                .getSingleResult();
+        long totalAssociations;
+        long totalProducts;
+        if (inTransaction()) {
+            totalAssociations = count();
+            totalProducts = getEntityManager()
+                    .createQuery("SELECT COUNT(DISTINCT a.product.id) FROM ProductWarehouseStoreAssociation a", Long.class)
+                    .getSingleResult();
+        } else {
+            totalAssociations = constraintIndex.countAssociations();
+            totalProducts = constraintIndex.countAssociatedProducts();
+        }
 
         return totalProducts > 0 ? (double) totalAssociations / totalProducts : 0.0;
     }
-}
 
+    private boolean inTransaction() {
+        return txRegistry.getTransactionStatus() == Status.STATUS_ACTIVE;
+    }
+}
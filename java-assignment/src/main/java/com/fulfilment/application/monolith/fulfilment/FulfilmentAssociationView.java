@@ -0,0 +1,39 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+import io.quarkus.hibernate.orm.panache.common.ProjectedFieldName;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only DTO of a fulfillment association, projected straight from the query
+ * so reads do not load the Product and Store entities.
+ */
+@RegisterForReflection
+public class FulfilmentAssociationView {
+
+    public Long id;
+    public Long productId;
+    public String productName;
+    public Long warehouseId;
+    public Long storeId;
+    public String storeName;
+    public LocalDateTime createdAt;
+
+    public FulfilmentAssociationView(
+            Long id,
+            @ProjectedFieldName("product.id") Long productId,
+            @ProjectedFieldName("product.name") String productName,
+            Long warehouseId,
+            @ProjectedFieldName("store.id") Long storeId,
+            @ProjectedFieldName("store.name") String storeName,
+            LocalDateTime createdAt
+    ) {
+        this.id = id;
+        this.productId = productId;
+        this.productName = productName;
+        this.warehouseId = warehouseId;
+        this.storeId = storeId;
+        this.storeName = storeName;
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,38 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+/**
+ * DTO with the outcome of one item of a batch association request.
+ */
+public class FulfilmentBatchResult {
+
+    public enum Status {
+        CREATED,
+        DUPLICATE,
+        CONSTRAINT_VIOLATED,
+        INVALID,
+        NOT_FOUND
+    }
+
+    // position of the item in the request
+    public int index;
+    public Status status;
+    public Long associationId;
+    public String error;
+
+    public FulfilmentBatchResult() {}
+
+    public FulfilmentBatchResult(int index, Status status, Long associationId, String error) {
+        this.index = index;
+        this.status = status;
+        this.associationId = associationId;
+        this.error = error;
+    }
+
+    public static FulfilmentBatchResult created(int index, Long associationId) {
+        return new FulfilmentBatchResult(index, Status.CREATED, associationId, null);
+    }
+
+    public static FulfilmentBatchResult rejected(int index, Status status, String error) {
+        return new FulfilmentBatchResult(index, status, null, error);
+    }
+}
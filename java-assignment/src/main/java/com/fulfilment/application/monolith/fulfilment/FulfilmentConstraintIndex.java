@@ -0,0 +1,372 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.Transactional;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import jakarta.ws.rs.WebApplicationException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import org.jboss.logging.Logger;
+
+/**
+ * In-memory index of the fulfillment associations used to evaluate the constraints
+ * without querying the association table.
+ * Loaded once at startup and kept up to date by {@link FulfilmentService} after each committed
+ * create or delete. The unique constraint uk_product_warehouse_store stays the final arbiter
+ * for duplicates.
+ * <p>
+ * Check-then-insert is made race free by {@link #lockForTransaction}: creates touching the same
+ * store or warehouse are serialised until their transaction has completed and the index has been
+ * updated, while unrelated stores proceed in parallel.
+ * <p>
+ * The same committed changes maintain the row counters {@link FulfilmentAnalyticsRepository} reads
+ * outside a transaction.
+ * <p>
+ * The index is only as good as the writes it is told about. It assumes a single writer: every
+ * association insert or delete goes through {@link FulfilmentService}, or reports itself through
+ * {@link #recordCreated}, {@link #recordRemoved}, {@link #recordStoreDeleted} or
+ * {@link #recordProductDeleted}. A row written any other way, with plain SQL or by calling
+ * {@link FulfilmentRepository} directly, is not seen until the next restart. It also assumes a
+ * single instance: the index and the locks are per JVM, so two instances against one database
+ * each enforce the limits against their own rows only.
+ */
+@ApplicationScoped
+public class FulfilmentConstraintIndex {
+
+    private static final Logger LOGGER = Logger.getLogger(FulfilmentConstraintIndex.class.getName());
+
+    private static final int LOCK_STRIPES = 64;
+    private static final long LOCK_TIMEOUT_SECONDS = 10;
+
+    private final StripedLock storeLocks = new StripedLock(LOCK_STRIPES);
+    private final StripedLock warehouseLocks = new StripedLock(LOCK_STRIPES);
+
+    // key of the per-transaction PendingChanges in the synchronization registry
+    private final Object pendingChangesKey = new Object();
+
+    // storeId -> productId -> warehouseIds (rows are unique, so a set is exact)
+    private final Map<Long, Map<Long, Set<Long>>> warehousesByProductInStore = new ConcurrentHashMap<>();
+
+    // storeId -> warehouseId -> number of rows
+    private final Map<Long, Map<Long, Integer>> warehousesByStore = new ConcurrentHashMap<>();
+
+    // warehouseId -> productId -> number of rows
+    private final Map<Long, Map<Long, Integer>> productsByWarehouse = new ConcurrentHashMap<>();
+
+    // storeId -> number of rows
+    private final Map<Long, Long> rowsByStore = new ConcurrentHashMap<>();
+
+    // productId -> number of rows
+    private final Map<Long, Long> rowsByProduct = new ConcurrentHashMap<>();
+
+    private final AtomicLong totalRows = new AtomicLong();
+
+    @Inject
+    FulfilmentRepository fulfilmentRepository;
+
+    @Inject
+    TransactionSynchronizationRegistry txRegistry;
+
+    @Transactional
+    void onStart(@Observes StartupEvent event) {
+        try (Stream<Object[]> rows = fulfilmentRepository.streamAssociationKeys()) {
+            rows.forEach(row -> add((Long) row[0], (Long) row[1], (Long) row[2]));
+        }
+        LOGGER.infof("Fulfilment constraint index loaded for %d stores", warehousesByStore.size());
+    }
+
+    /**
+     * Whether the committed index holds exactly the rows of the association table; false once a
+     * write has bypassed it.
+     */
+    @Transactional
+    boolean matchesDatabase() {
+        // storeId -> productId -> warehouseIds, as warehousesByProductInStore
+        Map<Long, Map<Long, Set<Long>>> rows = new HashMap<>();
+        try (Stream<Object[]> keys = fulfilmentRepository.streamAssociationKeys()) {
+            keys.forEach(row -> rows.computeIfAbsent((Long) row[2], id -> new HashMap<>())
+                    .computeIfAbsent((Long) row[0], id -> new HashSet<>())
+                    .add((Long) row[1]));
+        }
+        return rows.equals(warehousesByProductInStore);
+    }
+
+    /**
+     * Lock the given stores and warehouses until the current transaction completes.
+     * Must be called before {@link #evaluate} so the verdict cannot be invalidated by a concurrent create.
+     * Stripes the transaction already holds from an earlier call are not acquired again. A later
+     * call waits only for stripes that come after those held, stores before warehouses; an earlier
+     * stripe held by another transaction fails the call with 503 instead of risking a deadlock.
+     */
+    public void lockForTransaction(Collection<Long> storeIds, Collection<Long> warehouseIds) {
+        if (txRegistry.getTransactionStatus() != Status.STATUS_ACTIVE) {
+            throw new IllegalStateException("Fulfilment locks require an active transaction");
+        }
+        PendingChanges pending = pendingChanges();
+        try {
+            // stores are always locked before warehouses, keeping a global lock order; with
+            // warehouses already held, no store stripe may be waited for
+            int[] stores = storeLocks.acquire(storeIds, pending.storeStripes,
+                    pending.warehouseStripes.isEmpty(), LOCK_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            if (stores == null) {
+                throw new WebApplicationException("Could not acquire store lock", 503);
+            }
+            hold(pending.storeStripes, stores);
+
+            int[] warehouses = warehouseLocks.acquire(
+                    warehouseIds, pending.warehouseStripes, true, LOCK_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            if (warehouses == null) {
+                throw new WebApplicationException("Could not acquire warehouse lock", 503);
+            }
+            hold(pending.warehouseStripes, warehouses);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WebApplicationException("Interrupted while waiting for fulfilment lock", 503);
+        }
+    }
+
+    /**
+     * Evaluate the constraints for a new association from memory.
+     */
+    public FulfilmentConstraintVerdict evaluate(Long productId, Long warehouseId, Long storeId) {
+        Set<Long> productWarehouses =
+                warehousesByProductInStore.getOrDefault(storeId, Map.of()).getOrDefault(productId, Set.of());
+
+        return new FulfilmentConstraintVerdict(
+                productWarehouses.contains(warehouseId),
+                productWarehouses.size(),
+                warehousesByStore.getOrDefault(storeId, Map.of()).size(),
+                productsByWarehouse.getOrDefault(warehouseId, Map.of()).size()
+        );
+    }
+
+    public long countAssociationsForStore(Long storeId) {
+        return rowsByStore.getOrDefault(storeId, 0L);
+    }
+
+    public long countAssociationsForProduct(Long productId) {
+        return rowsByProduct.getOrDefault(productId, 0L);
+    }
+
+    public long countAssociations() {
+        return totalRows.get();
+    }
+
+    /**
+     * Number of distinct products with at least one association.
+     */
+    public long countAssociatedProducts() {
+        return rowsByProduct.size();
+    }
+
+    /**
+     * Start staging a batch of creates on top of the committed index.
+     * The caller must hold the locks of every store and warehouse of the batch.
+     */
+    public Batch stage() {
+        return new Batch();
+    }
+
+    /**
+     * Register a newly persisted association, applied once the current transaction commits.
+     */
+    public void recordCreated(ProductWarehouseStoreAssociation association) {
+        Long productId = association.product.id;
+        Long warehouseId = association.warehouseId;
+        Long storeId = association.store.id;
+        afterCommit(() -> add(productId, warehouseId, storeId));
+    }
+
+    /**
+     * Unregister a deleted association, applied once the current transaction commits.
+     */
+    public void recordRemoved(ProductWarehouseStoreAssociation association) {
+        Long productId = association.product.id;
+        Long warehouseId = association.warehouseId;
+        Long storeId = association.store.id;
+        afterCommit(() -> remove(productId, warehouseId, storeId));
+    }
+
+    /**
+     * Drop every association of a store, which the database removes by cascade when the store is deleted.
+     */
+    public void recordStoreDeleted(Long storeId) {
+        afterCommit(() -> {
+            Map<Long, Set<Long>> products = warehousesByProductInStore.getOrDefault(storeId, Map.of());
+            products.forEach((productId, warehouses) ->
+                    warehouses.forEach(warehouseId -> remove(productId, warehouseId, storeId)));
+        });
+    }
+
+    /**
+     * Drop every association of a product, which the database removes by cascade when the product is deleted.
+     */
+    public void recordProductDeleted(Long productId) {
+        afterCommit(() ->
+                warehousesByProductInStore.forEach((storeId, products) ->
+                        products.getOrDefault(productId, Set.of())
+                                .forEach(warehouseId -> remove(productId, warehouseId, storeId))));
+    }
+
+    void add(Long productId, Long warehouseId, Long storeId) {
+        boolean[] added = new boolean[1];
+        warehousesByProductInStore.compute(storeId, (key, products) -> {
+            Map<Long, Set<Long>> result = products == null ? new ConcurrentHashMap<>() : products;
+            added[0] = result.computeIfAbsent(productId, id -> ConcurrentHashMap.newKeySet()).add(warehouseId);
+            return result;
+        });
+        if (added[0]) {
+            increment(warehousesByStore, storeId, warehouseId);
+            increment(productsByWarehouse, warehouseId, productId);
+            rowsByStore.merge(storeId, 1L, Long::sum);
+            rowsByProduct.merge(productId, 1L, Long::sum);
+            totalRows.incrementAndGet();
+        }
+    }
+
+    void remove(Long productId, Long warehouseId, Long storeId) {
+        boolean[] removed = new boolean[1];
+        warehousesByProductInStore.computeIfPresent(storeId, (key, products) -> {
+            products.computeIfPresent(productId, (id, warehouses) -> {
+                removed[0] = warehouses.remove(warehouseId);
+                return warehouses.isEmpty() ? null : warehouses;
+            });
+            return products.isEmpty() ? null : products;
+        });
+        if (removed[0]) {
+            decrement(warehousesByStore, storeId, warehouseId);
+            decrement(productsByWarehouse, warehouseId, productId);
+            rowsByStore.computeIfPresent(storeId, (key, count) -> count == 1 ? null : count - 1);
+            rowsByProduct.computeIfPresent(productId, (key, count) -> count == 1 ? null : count - 1);
+            totalRows.decrementAndGet();
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (txRegistry.getTransactionStatus() != Status.STATUS_ACTIVE) {
+            action.run();
+            return;
+        }
+        pendingChanges().actions.add(action);
+    }
+
+    private PendingChanges pendingChanges() {
+        PendingChanges pending = (PendingChanges) txRegistry.getResource(pendingChangesKey);
+        if (pending == null) {
+            pending = new PendingChanges();
+            txRegistry.putResource(pendingChangesKey, pending);
+            txRegistry.registerInterposedSynchronization(pending);
+        }
+        return pending;
+    }
+
+    /**
+     * Associations staged by one batch, evaluated together with the committed index
+     * so that rows of the same batch count against each other's limits.
+     * Not thread safe, used by a single request.
+     */
+    public class Batch {
+
+        // storeId -> productId -> staged warehouseIds
+        private final Map<Long, Map<Long, Set<Long>>> stagedWarehousesByProductInStore = new HashMap<>();
+
+        // warehouses staged for a store that the committed index does not have yet
+        private final Map<Long, Set<Long>> newWarehousesByStore = new HashMap<>();
+
+        // products staged for a warehouse that the committed index does not have yet
+        private final Map<Long, Set<Long>> newProductsByWarehouse = new HashMap<>();
+
+        private Batch() {}
+
+        public FulfilmentConstraintVerdict evaluate(Long productId, Long warehouseId, Long storeId) {
+            FulfilmentConstraintVerdict committed = FulfilmentConstraintIndex.this.evaluate(productId, warehouseId, storeId);
+            Set<Long> staged =
+                    stagedWarehousesByProductInStore.getOrDefault(storeId, Map.of()).getOrDefault(productId, Set.of());
+
+            return new FulfilmentConstraintVerdict(
+                    committed.duplicate || staged.contains(warehouseId),
+                    committed.warehousesForProductInStore + staged.size(),
+                    committed.warehousesForStore + newWarehousesByStore.getOrDefault(storeId, Set.of()).size(),
+                    committed.productTypesInWarehouse + newProductsByWarehouse.getOrDefault(warehouseId, Set.of()).size()
+            );
+        }
+
+        /**
+         * Stage an association that passed {@link #evaluate}.
+         */
+        public void add(Long productId, Long warehouseId, Long storeId) {
+            stagedWarehousesByProductInStore
+                    .computeIfAbsent(storeId, id -> new HashMap<>())
+                    .computeIfAbsent(productId, id -> new HashSet<>())
+                    .add(warehouseId);
+            if (!warehousesByStore.getOrDefault(storeId, Map.of()).containsKey(warehouseId)) {
+                newWarehousesByStore.computeIfAbsent(storeId, id -> new HashSet<>()).add(warehouseId);
+            }
+            if (!productsByWarehouse.getOrDefault(warehouseId, Map.of()).containsKey(productId)) {
+                newProductsByWarehouse.computeIfAbsent(warehouseId, id -> new HashSet<>()).add(productId);
+            }
+        }
+    }
+
+    /**
+     * Index updates and lock stripes of one transaction.
+     * A single synchronization guarantees the index is updated before the stripes are released.
+     */
+    private class PendingChanges implements Synchronization {
+
+        final List<Runnable> actions = new ArrayList<>();
+        // stripes held by the transaction, released together on completion
+        final Set<Integer> storeStripes = new HashSet<>();
+        final Set<Integer> warehouseStripes = new HashSet<>();
+
+        @Override
+        public void beforeCompletion() {}
+
+        @Override
+        public void afterCompletion(int status) {
+            try {
+                if (status == Status.STATUS_COMMITTED) {
+                    actions.forEach(Runnable::run);
+                }
+            } finally {
+                warehouseLocks.release(warehouseStripes.stream().mapToInt(Integer::intValue).toArray());
+                storeLocks.release(storeStripes.stream().mapToInt(Integer::intValue).toArray());
+            }
+        }
+    }
+
+    private static void hold(Set<Integer> held, int[] stripes) {
+        for (int stripe : stripes) {
+            held.add(stripe);
+        }
+    }
+
+    private static void increment(Map<Long, Map<Long, Integer>> index, Long outerKey, Long innerKey) {
+        index.compute(outerKey, (key, counts) -> {
+            Map<Long, Integer> result = counts == null ? new ConcurrentHashMap<>() : counts;
+            result.merge(innerKey, 1, Integer::sum);
+            return result;
+        });
+    }
+
+    private static void decrement(Map<Long, Map<Long, Integer>> index, Long outerKey, Long innerKey) {
+        index.computeIfPresent(outerKey, (key, counts) -> {
+            counts.computeIfPresent(innerKey, (id, count) -> count == 1 ? null : count - 1);
+            return counts.isEmpty() ? null : counts;
+        });
+    }
+}
@@ -0,0 +1,54 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+/**
+ * Result of evaluating the fulfillment constraints for a single
+ * (product, warehouse, store) combination.
+ * Holds the current counts so callers can decide on the outcome in one place.
+ */
+public class FulfilmentConstraintVerdict {
+
+    public enum Outcome {
+        ALLOWED,
+        DUPLICATE,
+        MAX_WAREHOUSES_PER_PRODUCT_PER_STORE,
+        MAX_WAREHOUSES_PER_STORE,
+        MAX_PRODUCT_TYPES_PER_WAREHOUSE
+    }
+
+    public final boolean duplicate;
+    public final long warehousesForProductInStore;
+    public final long warehousesForStore;
+    public final long productTypesInWarehouse;
+
+    public FulfilmentConstraintVerdict(
+            boolean duplicate,
+            long warehousesForProductInStore,
+            long warehousesForStore,
+            long productTypesInWarehouse
+    ) {
+        this.duplicate = duplicate;
+        this.warehousesForProductInStore = warehousesForProductInStore;
+        this.warehousesForStore = warehousesForStore;
+        this.productTypesInWarehouse = productTypesInWarehouse;
+    }
+
+    /**
+     * Check the counts against the given limits.
+     * The duplicate check wins over the limits, then the limits are checked in declaration order.
+     */
+    public Outcome evaluate(FulfilmentConstraints constraints) {
+        if (duplicate) {
+            return Outcome.DUPLICATE;
+        }
+        if (warehousesForProductInStore >= constraints.maxWarehousesPerProductPerStore) {
+            return Outcome.MAX_WAREHOUSES_PER_PRODUCT_PER_STORE;
+        }
+        if (warehousesForStore >= constraints.maxWarehousesPerStore) {
+            return Outcome.MAX_WAREHOUSES_PER_STORE;
+        }
+        if (productTypesInWarehouse >= constraints.maxProductTypesPerWarehouse) {
+            return Outcome.MAX_PRODUCT_TYPES_PER_WAREHOUSE;
+        }
+        return Outcome.ALLOWED;
+    }
+}
@@ -1,9 +1,13 @@
 package com.fulfilment.application.monolith.fulfilment;
 
+import io.micrometer.core.annotation.Timed;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
+import org.hibernate.jpa.HibernateHints;
 
 import java.util.List;
+import java.util.stream.Stream;
 import com.fulfilment.application.monolith.products.Product;
 import com.fulfilment.application.monolith.stores.Store;
 
@@ -12,52 +16,63 @@ import com.fulfilment.application.monolith.stores.Store;
  */
 
 @ApplicationScoped
+@Timed("fulfilment.repository")
 public class FulfilmentRepository implements PanacheRepository<ProductWarehouseStoreAssociation> {
 
-    public List<ProductWarehouseStoreAssociation> findByProductAndStore(Product product, Store store) {
-        return list("product = ?1 and store = ?2", product, store);
+    // rows fetched per round trip while streaming
+    private static final int STREAM_FETCH_SIZE = 100;
+
+    public List<FulfilmentAssociationView> findByProductAndStore(Product product, Store store) {
+        return find("product = ?1 and store = ?2", product, store)
+                .project(FulfilmentAssociationView.class)
+                .list();
     }
 
-    public List<ProductWarehouseStoreAssociation> findByStore(Store store) {
-        return list("store = ?1", store);
+    public List<FulfilmentAssociationView> findByStore(Store store) {
+        return find("store = ?1", Sort.by("id"), store)
+                .project(FulfilmentAssociationView.class)
+                .list();
     }
 
-    public List<ProductWarehouseStoreAssociation> findByWarehouse(Long warehouseId) {
-        return list("warehouseId = ?1", warehouseId);
+    /**
+     * Keyset page of the associations of a store, ordered by id.
+     *
+     * @param after id of the last association of the previous page, 0 for the first page
+     */
+    public List<FulfilmentAssociationView> findByStore(Store store, long after, int limit) {
+        return find("store = ?1 and id > ?2", Sort.by("id"), store, after)
+                .project(FulfilmentAssociationView.class)
+                .page(0, limit)
+                .list();
     }
 
-    public long countWarehousesForProductInStore(Product product, Store store) {
-        return getEntityManager().createQuery(
-                        "SELECT COUNT(DISTINCT a.warehouseId) " +
-                                "FROM ProductWarehouseStoreAssociation a " +
-                                "WHERE a.product = ?1 AND a.store = ?2",
-                        Long.class
-                )
-                .setParameter(1, product)
-                .setParameter(2, store)
-                .getSingleResult();
+    /**
+     * Stream the associations of a store, ordered by id.
+     * Rows are scrolled from the database cursor; must be consumed inside a transaction.
+     */
+    public Stream<FulfilmentAssociationView> streamByStore(Long storeId) {
+        return find("store.id = ?1", Sort.by("id"), storeId)
+                .project(FulfilmentAssociationView.class)
+                .withHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .stream();
     }
 
-    public long countWarehousesForStore(Store store) {
-        return getEntityManager().createQuery(
-                        "SELECT COUNT(DISTINCT a.warehouseId) " +
-                                "FROM ProductWarehouseStoreAssociation a " +
-                                "WHERE a.store = ?1",
-                        Long.class
-                )
-                .setParameter(1, store)
-                .getSingleResult();
+    public List<FulfilmentAssociationView> findByWarehouse(Long warehouseId) {
+        return find("warehouseId = ?1", warehouseId)
+                .project(FulfilmentAssociationView.class)
+                .list();
     }
 
-    public long countProductTypesInWarehouse(Long warehouseId) {
+    /**
+     * Stream the (productId, warehouseId, storeId) key of every association.
+     */
+    public Stream<Object[]> streamAssociationKeys() {
         return getEntityManager().createQuery(
-                        "SELECT COUNT(DISTINCT a.product) " +
-                                "FROM ProductWarehouseStoreAssociation a " +
-                                "WHERE a.warehouseId = ?1",
-                        Long.class
+                        "SELECT a.product.id, a.warehouseId, a.store.id " +
+                                "FROM ProductWarehouseStoreAssociation a",
+                        Object[].class
                 )
-                .setParameter(1, warehouseId)
-                .getSingleResult();
+                .getResultStream();
     }
 
     public boolean exists(Product product, Long warehouseId, Store store) {
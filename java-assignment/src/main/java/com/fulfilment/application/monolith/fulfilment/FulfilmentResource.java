@@ -1,5 +1,7 @@
 package com.fulfilment.application.monolith.fulfilment;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.arc.properties.UnlessBuildProperty;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
@@ -12,7 +14,16 @@ import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 import com.fulfilment.application.monolith.products.Product;
 import com.fulfilment.application.monolith.products.ProductRepository;
 import com.fulfilment.application.monolith.stores.Store;
@@ -21,14 +32,23 @@ import com.fulfilment.application.monolith.stores.Store;
  * REST API for managing fulfillment associations between Products, Warehouses, and Stores.
  */
 @Path("fulfillment")
+@UnlessBuildProperty(name = "warehouse.rest.virtual-threads", stringValue = "true", enableIfMissing = true)
 @ApplicationScoped
 @Produces("application/json")
 @Consumes("application/json")
 public class FulfilmentResource {
 
+    static final String NDJSON = "application/x-ndjson";
+
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+
     @Inject
     FulfilmentService fulfilmentService;
 
+    @Inject
+    ObjectMapper objectMapper;
+
     @Inject
     FulfilmentRepository fulfilmentRepository;
 
@@ -47,14 +67,9 @@ public class FulfilmentResource {
     @POST
     @Transactional
     public ProductWarehouseStoreAssociation createAssociation(FulfilmentAssociationRequest request) {
-        if (request.productId == null || request.productId <= 0) {
-            throw new WebApplicationException("Invalid product ID", 400);
-        }
-        if (request.warehouseId == null) {
-            throw new WebApplicationException("Warehouse business unit code cannot be null or empty", 400);
-        }
-        if (request.storeId == null || request.storeId <= 0) {
-            throw new WebApplicationException("Invalid store ID", 400);
+        String error = validate(request);
+        if (error != null) {
+            throw new WebApplicationException(error, 400);
         }
 
         Product product = productRepository.findById(request.productId);
@@ -70,12 +85,79 @@ public class FulfilmentResource {
         return fulfilmentService.createAssociation(product, request.warehouseId, store);
     }
 
+    /**
+     * Create fulfillment associations in bulk.
+     * POST /fulfillment/batch
+     * Body: [
+     *   { "productId": 1, "warehouseId": 1, "storeId": 2 },
+     *   ...
+     * ]
+     * Every item gets its own result; rejected items do not abort the batch.
+     */
+    @POST
+    @Path("batch")
+    @Transactional
+    public List<FulfilmentBatchResult> createAssociations(List<FulfilmentAssociationRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new WebApplicationException("Batch must contain at least one association", 400);
+        }
+
+        Set<Long> productIds = new HashSet<>();
+        Set<Long> storeIds = new HashSet<>();
+        for (FulfilmentAssociationRequest request : requests) {
+            if (request != null && validate(request) == null) {
+                productIds.add(request.productId);
+                storeIds.add(request.storeId);
+            }
+        }
+        Map<Long, Product> products = productIds.isEmpty()
+                ? Map.of()
+                : productRepository.list("id in ?1", productIds).stream()
+                        .collect(Collectors.toMap(product -> product.id, product -> product));
+        Map<Long, Store> stores = storeIds.isEmpty()
+                ? Map.of()
+                : Store.<Store>list("id in ?1", storeIds).stream()
+                        .collect(Collectors.toMap(store -> store.id, store -> store));
+
+        FulfilmentBatchResult[] results = new FulfilmentBatchResult[requests.size()];
+        Map<Integer, ProductWarehouseStoreAssociation> candidates = new LinkedHashMap<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            FulfilmentAssociationRequest request = requests.get(i);
+            String error = request == null ? "Association cannot be null" : validate(request);
+            if (error != null) {
+                results[i] = FulfilmentBatchResult.rejected(i, FulfilmentBatchResult.Status.INVALID, error);
+                continue;
+            }
+
+            Product product = products.get(request.productId);
+            if (product == null) {
+                results[i] = FulfilmentBatchResult.rejected(
+                        i, FulfilmentBatchResult.Status.NOT_FOUND, "Product not found with ID: " + request.productId);
+                continue;
+            }
+            Store store = stores.get(request.storeId);
+            if (store == null) {
+                results[i] = FulfilmentBatchResult.rejected(
+                        i, FulfilmentBatchResult.Status.NOT_FOUND, "Store not found with ID: " + request.storeId);
+                continue;
+            }
+
+            candidates.put(i, new ProductWarehouseStoreAssociation(product, request.warehouseId, store));
+        }
+
+        for (FulfilmentBatchResult result : fulfilmentService.createAssociations(candidates)) {
+            results[result.index] = result;
+        }
+        return Arrays.asList(results);
+    }
+
     /**
      * Get all fulfillment associations for a product in a store.
      * GET /fulfillment?productId=1&storeId=2
      */
     @GET
-    public List<ProductWarehouseStoreAssociation> getAssociations(
+    public List<FulfilmentAssociationView> getAssociations(
             @QueryParam("productId") Long productId,
             @QueryParam("storeId") Long storeId
     ) {
@@ -97,17 +179,68 @@ public class FulfilmentResource {
     }
 
     /**
-     * Get all fulfillment associations for a store.
-     * GET /fulfillment/store/{storeId}
+     * Get the fulfillment associations for a store, one keyset page at a time.
+     * GET /fulfillment/store/{storeId}?after=0&limit=100
+     * Pass the id of the last association of a page as {@code after} to get the next one;
+     * a page shorter than {@code limit} is the last. Without {@code after} and {@code limit}
+     * all associations are returned, as for clients that do not page.
      */
     @GET
     @Path("store/{storeId}")
-    public List<ProductWarehouseStoreAssociation> getStoreAssociations(@PathParam("storeId") Long storeId) {
+    public List<FulfilmentAssociationView> getStoreAssociations(
+            @PathParam("storeId") Long storeId,
+            @QueryParam("after") Long after,
+            @QueryParam("limit") Integer limit
+    ) {
+        if (after != null && after < 0) {
+            throw new WebApplicationException("after must not be negative", 400);
+        }
+        if (limit != null && (limit <= 0 || limit > MAX_PAGE_SIZE)) {
+            throw new WebApplicationException("limit must be between 1 and " + MAX_PAGE_SIZE, 400);
+        }
+
+        Store store = findStore(storeId);
+        if (after == null && limit == null) {
+            return fulfilmentService.getAssociationsForStore(store);
+        }
+        return fulfilmentService.getAssociationsForStore(
+                store,
+                after == null ? 0 : after,
+                limit == null ? DEFAULT_PAGE_SIZE : limit);
+    }
+
+    /**
+     * Stream all fulfillment associations for a store as newline delimited JSON.
+     * GET /fulfillment/store/{storeId} with Accept: application/x-ndjson
+     * Rows are written as they are read from the database.
+     */
+    @GET
+    @Path("store/{storeId}")
+    @Produces(NDJSON)
+    public StreamingOutput streamStoreAssociations(@PathParam("storeId") Long storeId) {
+        Store store = findStore(storeId);
+        return output -> {
+            try {
+                fulfilmentService.forEachAssociationForStore(store.id, association -> {
+                    try {
+                        output.write(objectMapper.writeValueAsBytes(association));
+                        output.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+    }
+
+    private static Store findStore(Long storeId) {
         Store store = Store.findById(storeId);
         if (store == null) {
             throw new WebApplicationException("Store not found with ID: " + storeId, 404);
         }
-        return fulfilmentService.getAssociationsForStore(store);
+        return store;
     }
 
     /**
@@ -117,7 +250,7 @@ public class FulfilmentResource {
 
     @GET
     @Path("warehouse/{warehouseId}")
-    public List<ProductWarehouseStoreAssociation> getWarehouseAssociations(
+    public List<FulfilmentAssociationView> getWarehouseAssociations(
             @PathParam("warehouseId") String warehouseIdParam
     ) {
 
@@ -150,6 +283,19 @@ public class FulfilmentResource {
         fulfilmentService.removeAssociation(association);
     }
 
+    private static String validate(FulfilmentAssociationRequest request) {
+        if (request.productId == null || request.productId <= 0) {
+            return "Invalid product ID";
+        }
+        if (request.warehouseId == null) {
+            return "Warehouse business unit code cannot be null or empty";
+        }
+        if (request.storeId == null || request.storeId <= 0) {
+            return "Invalid store ID";
+        }
+        return null;
+    }
+
     /**
      * Get fulfillment constraints.
      * GET /fulfillment/constraints
@@ -1,9 +1,22 @@
 package com.fulfilment.application.monolith.fulfilment;
 
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import jakarta.transaction.Transactional;
 import jakarta.ws.rs.WebApplicationException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 import com.fulfilment.application.monolith.products.Product;
 import com.fulfilment.application.monolith.stores.Store;
 
@@ -15,15 +28,33 @@ import com.fulfilment.application.monolith.stores.Store;
  * - Each Warehouse can store max 5 different Product types
  */
 @ApplicationScoped
+@Timed("fulfilment.service")
 public class FulfilmentService {
 
     private static final int MAX_WAREHOUSES_PER_PRODUCT_PER_STORE = 2;
     private static final int MAX_WAREHOUSES_PER_STORE = 3;
     private static final int MAX_PRODUCT_TYPES_PER_WAREHOUSE = 5;
 
+    // matches quarkus.hibernate-orm.jdbc.statement-batch-size
+    static final int BATCH_FLUSH_SIZE = 50;
+
+    // rejected associations, tagged with the violated constraint and single or batch create
+    static final String REJECTIONS = "fulfilment.rejections";
+
+    private static final String INVALID_WAREHOUSE_ID = "WarehouseId must be valid";
+
     @Inject
     FulfilmentRepository fulfilmentRepository;
 
+    @Inject
+    FulfilmentConstraintIndex constraintIndex;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @Inject
+    TransactionSynchronizationRegistry txRegistry;
+
     public ProductWarehouseStoreAssociation createAssociation(
             Product product,
             Long warehouseId,
@@ -33,53 +64,126 @@ public class FulfilmentService {
         if (product == null)
             throw new WebApplicationException("Product cannot be null", 400);
 
-        if (warehouseId == null || warehouseId <= 0)
-            throw new WebApplicationException("WarehouseId must be valid", 400);
+        if (!isValidWarehouseId(warehouseId))
+            throw new WebApplicationException(INVALID_WAREHOUSE_ID, 400);
 
         if (store == null)
             throw new WebApplicationException("Store cannot be null", 400);
 
-        // Duplicate check
-        if (fulfilmentRepository.exists(product, warehouseId, store)) {
-            throw new WebApplicationException(
-                    "Association already exists",
-                    409
-            );
-        }
+        constraintIndex.lockForTransaction(List.of(store.id), List.of(warehouseId));
 
-        // Constraint 1
-        long warehouseCountForProduct =
-                fulfilmentRepository.countWarehousesForProductInStore(product, store);
+        FulfilmentConstraintVerdict verdict =
+                constraintIndex.evaluate(product.id, warehouseId, store.id);
 
-        if (warehouseCountForProduct >= MAX_WAREHOUSES_PER_PRODUCT_PER_STORE) {
-            throw new WebApplicationException("Max warehouses per product/store reached", 422);
+        FulfilmentConstraintVerdict.Outcome outcome = verdict.evaluate(getConstraints());
+        if (outcome != FulfilmentConstraintVerdict.Outcome.ALLOWED) {
+            countRejection(outcome, "single");
         }
-
-        // Constraint 2
-        long warehouseCountForStore =
-                fulfilmentRepository.countWarehousesForStore(store);
-
-        if (warehouseCountForStore >= MAX_WAREHOUSES_PER_STORE) {
-            throw new WebApplicationException("Max warehouses per store reached", 422);
+        if (outcome == FulfilmentConstraintVerdict.Outcome.DUPLICATE) {
+            throw new WebApplicationException(violationMessage(outcome), 409);
         }
-
-        // Constraint 3
-
-        long productCountInWarehouse =
-                fulfilmentRepository.countProductTypesInWarehouse(warehouseId);
-
-        if (productCountInWarehouse >= MAX_PRODUCT_TYPES_PER_WAREHOUSE) {
-            throw new WebApplicationException("Max product types per warehouse reached", 422);
+        if (outcome != FulfilmentConstraintVerdict.Outcome.ALLOWED) {
+            throw new WebApplicationException(violationMessage(outcome), 422);
         }
 
         ProductWarehouseStoreAssociation association =
                 new ProductWarehouseStoreAssociation(product, warehouseId, store);
 
         fulfilmentRepository.persist(association);
+        constraintIndex.recordCreated(association);
 
         return association;
     }
 
+    /**
+     * Create a batch of associations in the current transaction.
+     * Each candidate is checked against the committed associations and those created earlier in the
+     * same batch; rejected candidates, including those with an invalid warehouse id, are reported
+     * per item instead of aborting the batch.
+     *
+     * @param candidates associations to create, keyed by their position in the request
+     */
+    public List<FulfilmentBatchResult> createAssociations(Map<Integer, ProductWarehouseStoreAssociation> candidates) {
+        List<FulfilmentBatchResult> results = new ArrayList<>(candidates.size());
+        if (candidates.isEmpty()) {
+            return results;
+        }
+
+        Set<Long> storeIds = new HashSet<>();
+        Set<Long> warehouseIds = new HashSet<>();
+        for (ProductWarehouseStoreAssociation candidate : candidates.values()) {
+            if (!isValidWarehouseId(candidate.warehouseId)) {
+                continue;
+            }
+            storeIds.add(candidate.store.id);
+            warehouseIds.add(candidate.warehouseId);
+        }
+        constraintIndex.lockForTransaction(storeIds, warehouseIds);
+
+        FulfilmentConstraintIndex.Batch batch = constraintIndex.stage();
+        FulfilmentConstraints constraints = getConstraints();
+        BatchRejections rejections = new BatchRejections();
+        List<ProductWarehouseStoreAssociation> unflushed = new ArrayList<>(BATCH_FLUSH_SIZE);
+
+        for (Map.Entry<Integer, ProductWarehouseStoreAssociation> entry : candidates.entrySet()) {
+            int index = entry.getKey();
+            ProductWarehouseStoreAssociation association = entry.getValue();
+            if (!isValidWarehouseId(association.warehouseId)) {
+                results.add(FulfilmentBatchResult.rejected(
+                        index, FulfilmentBatchResult.Status.INVALID, INVALID_WAREHOUSE_ID));
+                continue;
+            }
+            Long productId = association.product.id;
+            Long storeId = association.store.id;
+
+            FulfilmentConstraintVerdict.Outcome outcome =
+                    batch.evaluate(productId, association.warehouseId, storeId).evaluate(constraints);
+            if (outcome != FulfilmentConstraintVerdict.Outcome.ALLOWED) {
+                rejections.add(outcome);
+            }
+
+            if (outcome == FulfilmentConstraintVerdict.Outcome.DUPLICATE) {
+                results.add(FulfilmentBatchResult.rejected(
+                        index, FulfilmentBatchResult.Status.DUPLICATE, violationMessage(outcome)));
+                continue;
+            }
+            if (outcome != FulfilmentConstraintVerdict.Outcome.ALLOWED) {
+                results.add(FulfilmentBatchResult.rejected(
+                        index, FulfilmentBatchResult.Status.CONSTRAINT_VIOLATED, violationMessage(outcome)));
+                continue;
+            }
+
+            batch.add(productId, association.warehouseId, storeId);
+            fulfilmentRepository.persist(association);
+            constraintIndex.recordCreated(association);
+            results.add(FulfilmentBatchResult.created(index, association.id));
+
+            // keep the persistence context small, the inserts go out as JDBC batches;
+            // only this batch's associations are detached, the caller's entities stay managed
+            unflushed.add(association);
+            if (unflushed.size() == BATCH_FLUSH_SIZE) {
+                fulfilmentRepository.flush();
+                unflushed.forEach(fulfilmentRepository.getEntityManager()::detach);
+                unflushed.clear();
+            }
+        }
+
+        recordAfterCommit(rejections);
+        return results;
+    }
+
+    private void recordAfterCommit(BatchRejections rejections) {
+        if (rejections.counts.isEmpty()) {
+            return;
+        }
+        if (txRegistry.getTransactionStatus() != Status.STATUS_ACTIVE) {
+            rejections.record();
+            return;
+        }
+        // a rolled-back batch rejected nothing
+        txRegistry.registerInterposedSynchronization(rejections);
+    }
+
     /**
      * Remove a fulfillment association.
      */
@@ -88,29 +192,101 @@ public class FulfilmentService {
             throw new WebApplicationException("Association cannot be null", 400);
         }
         fulfilmentRepository.deleteById(association.id);
+        constraintIndex.recordRemoved(association);
     }
 
     /**
      * Get all warehouses fulfilling a product in a specific store.
      */
-    public List<ProductWarehouseStoreAssociation> getWarehousesForProductInStore(Product product, Store store) {
+    public List<FulfilmentAssociationView> getWarehousesForProductInStore(Product product, Store store) {
         return fulfilmentRepository.findByProductAndStore(product, store);
     }
 
     /**
-     * Get all fulfillment associations for a store.
+     * Get all fulfillment associations for a store, ordered by id.
      */
-    public List<ProductWarehouseStoreAssociation> getAssociationsForStore(Store store) {
+    public List<FulfilmentAssociationView> getAssociationsForStore(Store store) {
         return fulfilmentRepository.findByStore(store);
     }
 
+    /**
+     * Get one page of the fulfillment associations for a store.
+     *
+     * @param after id of the last association already returned, 0 for the first page
+     */
+    public List<FulfilmentAssociationView> getAssociationsForStore(Store store, long after, int limit) {
+        return fulfilmentRepository.findByStore(store, after, limit);
+    }
+
+    /**
+     * Pass every fulfillment association of a store to the given action, in id order.
+     * Rows are unmanaged projections, so memory stays flat for any store size.
+     */
+    @Transactional
+    public void forEachAssociationForStore(Long storeId, Consumer<FulfilmentAssociationView> action) {
+        try (Stream<FulfilmentAssociationView> rows = fulfilmentRepository.streamByStore(storeId)) {
+            rows.forEachOrdered(action);
+        }
+    }
+
     /**
      * Get all fulfillment associations for a warehouse.
      */
-    public List<ProductWarehouseStoreAssociation> getAssociationsForWarehouse(Long warehouseId) {
+    public List<FulfilmentAssociationView> getAssociationsForWarehouse(Long warehouseId) {
         return fulfilmentRepository.findByWarehouse(warehouseId);
     }
 
+    private static boolean isValidWarehouseId(Long warehouseId) {
+        return warehouseId != null && warehouseId > 0;
+    }
+
+    private void countRejection(FulfilmentConstraintVerdict.Outcome outcome, String mode) {
+        meterRegistry.counter(REJECTIONS, "reason", outcome.name(), "mode", mode).increment();
+    }
+
+    /**
+     * The rejections of one batch, added to the counters after its transaction commits.
+     */
+    private final class BatchRejections implements Synchronization {
+
+        final Map<FulfilmentConstraintVerdict.Outcome, Integer> counts =
+                new EnumMap<>(FulfilmentConstraintVerdict.Outcome.class);
+
+        void add(FulfilmentConstraintVerdict.Outcome outcome) {
+            counts.merge(outcome, 1, Integer::sum);
+        }
+
+        void record() {
+            counts.forEach((outcome, count) ->
+                    meterRegistry.counter(REJECTIONS, "reason", outcome.name(), "mode", "batch").increment(count));
+        }
+
+        @Override
+        public void beforeCompletion() {}
+
+        @Override
+        public void afterCompletion(int status) {
+            if (status == Status.STATUS_COMMITTED) {
+                record();
+            }
+        }
+    }
+
+    private static String violationMessage(FulfilmentConstraintVerdict.Outcome outcome) {
+        switch (outcome) {
+            case DUPLICATE:
+                return "Association already exists";
+            case MAX_WAREHOUSES_PER_PRODUCT_PER_STORE:
+                return "Max warehouses per product/store reached";
+            case MAX_WAREHOUSES_PER_STORE:
+                return "Max warehouses per store reached";
+            case MAX_PRODUCT_TYPES_PER_WAREHOUSE:
+                return "Max product types per warehouse reached";
+            default:
+                throw new IllegalArgumentException("Not a violation: " + outcome);
+        }
+    }
+
     /**
      * Get constraint limits.
      */
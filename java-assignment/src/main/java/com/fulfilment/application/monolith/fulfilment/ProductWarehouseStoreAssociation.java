@@ -23,6 +23,12 @@ import org.hibernate.annotations.OnDeleteAction;
                         columnNames = {"product_id", "warehouse_id", "store_id"},
                         name = "uk_product_warehouse_store"
                 )
+        },
+        // uk_product_warehouse_store already serves the lookups led by product_id
+        indexes = {
+                @Index(name = "idx_pwsa_store_product_warehouse", columnList = "store_id, product_id, warehouse_id"),
+                @Index(name = "idx_pwsa_store_id", columnList = "store_id, id"),
+                @Index(name = "idx_pwsa_warehouse_product", columnList = "warehouse_id, product_id")
         }
 )
 public class ProductWarehouseStoreAssociation extends PanacheEntity {
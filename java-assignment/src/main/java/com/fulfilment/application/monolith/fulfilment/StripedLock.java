@@ -0,0 +1,85 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fixed set of binary semaphores selected by key hash.
+ * Keys are acquired in ascending stripe order, so callers holding several stripes cannot deadlock.
+ * A caller that acquires again while holding stripes only waits for stripes above those it holds;
+ * a lower one is taken only if it is free at once, as waiting for it would break the order.
+ * Semaphores are used instead of locks because stripes are released from the transaction
+ * completion callback, which is not guaranteed to run on the acquiring thread. They are not
+ * reentrant, so a caller that may already hold stripes passes them as {@code held}.
+ */
+final class StripedLock {
+
+    private final Semaphore[] stripes;
+
+    StripedLock(int stripeCount) {
+        stripes = new Semaphore[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Semaphore(1);
+        }
+    }
+
+    /**
+     * Acquire the stripes of all keys, or none of them if the timeout elapses.
+     *
+     * @return the acquired stripes, to be passed to {@link #release(int[])}, or null on timeout
+     */
+    int[] acquire(Collection<Long> keys, long timeout, TimeUnit unit) throws InterruptedException {
+        return acquire(keys, Set.of(), true, timeout, unit);
+    }
+
+    /**
+     * Acquire the stripes of all keys that are not already in {@code held}, waiting only for
+     * those above every held stripe.
+     *
+     * @param ordered false when the caller also holds stripes that come after all of these in its
+     *                lock order, so that none of them may be waited for
+     * @return the newly acquired stripes, or null on timeout or when a stripe that may not be
+     *         waited for is taken
+     */
+    int[] acquire(Collection<Long> keys, Set<Integer> held, boolean ordered, long timeout, TimeUnit unit)
+            throws InterruptedException {
+        int waitAbove = ordered ? held.stream().mapToInt(Integer::intValue).max().orElse(-1) : Integer.MAX_VALUE;
+        int[] indexes = keys.stream()
+                .mapToInt(this::stripeOf)
+                .filter(index -> !held.contains(index))
+                .distinct()
+                .sorted()
+                .toArray();
+
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (int i = 0; i < indexes.length; i++) {
+            boolean acquired;
+            try {
+                acquired = indexes[i] > waitAbove
+                        ? stripes[indexes[i]].tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)
+                        : stripes[indexes[i]].tryAcquire();
+            } catch (InterruptedException e) {
+                release(Arrays.copyOf(indexes, i));
+                throw e;
+            }
+            if (!acquired) {
+                release(Arrays.copyOf(indexes, i));
+                return null;
+            }
+        }
+        return indexes;
+    }
+
+    void release(int[] indexes) {
+        for (int index : indexes) {
+            stripes[index].release();
+        }
+    }
+
+    private int stripeOf(Long key) {
+        return Math.floorMod(Long.hashCode(key), stripes.length);
+    }
+}
@@ -2,31 +2,62 @@ package com.fulfilment.application.monolith.location;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
 import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import io.micrometer.core.annotation.Timed;
+import io.quarkus.runtime.StartupEvent;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+/**
+ * Registry of the known locations, held as an immutable hash index keyed by the upper-cased
+ * identifier. Lookups are a single hash probe and allocate nothing for identifiers that are
+ * already upper case; {@link #reload} swaps in a complete new index atomically.
+ * <p>
+ * The built-in locations are replaced at startup by the file configured in
+ * {@code location.registry.path}, one {@code IDENTIFIER,maxNumberOfWarehouses,maxCapacity}
+ * per line.
+ */
 @ApplicationScoped
 public class LocationGateway implements LocationResolver {
 
-  private static final List<Location> locations = new ArrayList<>();
   private static final Logger LOGGER = Logger.getLogger(LocationGateway.class.getName());
 
-  static {
-    locations.add(new Location("ZWOLLE-001", 1, 40));
-    locations.add(new Location("ZWOLLE-002", 2, 50));
-    locations.add(new Location("AMSTERDAM-001", 5, 100));
-    locations.add(new Location("AMSTERDAM-002", 3, 75));
-    locations.add(new Location("TILBURG-001", 1, 40));
-    locations.add(new Location("HELMOND-001", 1, 45));
-    locations.add(new Location("EINDHOVEN-001", 2, 70));
-    locations.add(new Location("VETSBY-001", 1, 90));
+  private static final List<Location> DEFAULT_LOCATIONS = List.of(
+          new Location("ZWOLLE-001", 1, 40),
+          new Location("ZWOLLE-002", 2, 50),
+          new Location("AMSTERDAM-001", 5, 100),
+          new Location("AMSTERDAM-002", 3, 75),
+          new Location("TILBURG-001", 1, 40),
+          new Location("HELMOND-001", 1, 45),
+          new Location("EINDHOVEN-001", 2, 70),
+          new Location("VETSBY-001", 1, 90));
+
+  private volatile Map<String, Location> locationsByIdentifier = index(DEFAULT_LOCATIONS);
+
+  @ConfigProperty(name = "location.registry.path")
+  Optional<String> registryPath;
+
+  void onStart(@Observes StartupEvent event) throws IOException {
+    if (registryPath.isPresent()) {
+      reload(Path.of(registryPath.get()));
+    }
   }
 
   @Override
+  @Timed("location.lookup")
   public Location resolveByIdentifier(String identifier) {
     if (identifier == null || identifier.isEmpty()) {
       String msg = "Location identifier must not be null or empty";
@@ -34,13 +65,63 @@ public class LocationGateway implements LocationResolver {
       throw new IllegalArgumentException(msg);
     }
 
-    return locations.stream()
-            .filter(loc -> loc.identification.equalsIgnoreCase(identifier))
-            .findFirst()
-            .orElseThrow(() -> {
-              String msg = "Location not found for identifier: " + identifier;
-              LOGGER.log(Level.WARNING, msg);
-              return new IllegalArgumentException(msg);
-            });
+    Location location = locationsByIdentifier.get(normalise(identifier));
+    if (location == null) {
+      // an unknown location is a client error, not an operational problem
+      String msg = "Location not found for identifier: " + identifier;
+      LOGGER.log(Level.FINE, msg);
+      throw new IllegalArgumentException(msg);
+    }
+    return location;
+  }
+
+  /**
+   * Replace all locations. Concurrent lookups see either the old or the new registry, never a mix.
+   */
+  public void reload(Collection<Location> locations) {
+    locationsByIdentifier = index(locations);
+    LOGGER.log(Level.INFO, "Location registry loaded with {0} locations", locations.size());
+  }
+
+  /**
+   * Replace all locations with the content of a registry file.
+   * Blank lines and lines starting with # are ignored.
+   */
+  public void reload(Path file) throws IOException {
+    List<Location> locations = new ArrayList<>();
+    for (String line : Files.readAllLines(file)) {
+      String trimmed = line.strip();
+      if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+        continue;
+      }
+      String[] fields = trimmed.split(",");
+      if (fields.length != 3) {
+        throw new IllegalArgumentException("Invalid location registry line: " + line);
+      }
+      try {
+        locations.add(new Location(
+                fields[0].strip(),
+                Integer.parseInt(fields[1].strip()),
+                Integer.parseInt(fields[2].strip())));
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Invalid location registry line: " + line, e);
+      }
+    }
+    reload(locations);
+  }
+
+  private static Map<String, Location> index(Collection<Location> locations) {
+    Map<String, Location> index = new HashMap<>();
+    for (Location location : locations) {
+      if (index.put(normalise(location.identification), location) != null) {
+        throw new IllegalArgumentException("Duplicate location identifier: " + location.identification);
+      }
+    }
+    return Map.copyOf(index);
+  }
+
+  private static String normalise(String identifier) {
+    // returns the same instance when there is nothing to convert
+    return identifier.toUpperCase(Locale.ROOT);
   }
 }
@@ -0,0 +1,36 @@
+package com.fulfilment.application.monolith.metrics;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+import java.util.List;
+
+/**
+ * Publishes histogram buckets for the application timers and the statement counts, so
+ * percentiles can be aggregated across instances on the Prometheus side.
+ */
+public class MetricsConfiguration {
+
+  // timer names of the use cases, services, repositories and the location lookup
+  static final List<String> APPLICATION_METRICS =
+          List.of("warehouse.", "fulfilment.", "location.", StatementCountFilter.METRIC);
+
+  @Produces
+  @Singleton
+  public MeterFilter applicationHistograms() {
+    return new MeterFilter() {
+      @Override
+      public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+        if (APPLICATION_METRICS.stream().noneMatch(id.getName()::startsWith)) {
+          return config;
+        }
+        return DistributionStatisticConfig.builder()
+                .percentilesHistogram(true)
+                .build()
+                .merge(config);
+      }
+    };
+  }
+}
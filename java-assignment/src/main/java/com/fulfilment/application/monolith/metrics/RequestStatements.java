@@ -0,0 +1,20 @@
+package com.fulfilment.application.monolith.metrics;
+
+import jakarta.enterprise.context.RequestScoped;
+
+/**
+ * Number of SQL statements sent to the database while serving the current request.
+ */
+@RequestScoped
+public class RequestStatements {
+
+  private int count;
+
+  void increment() {
+    count++;
+  }
+
+  public int count() {
+    return count;
+  }
+}
@@ -0,0 +1,41 @@
+package com.fulfilment.application.monolith.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.container.ResourceInfo;
+import java.lang.reflect.Method;
+import org.jboss.resteasy.reactive.server.ServerResponseFilter;
+
+/**
+ * Records the SQL statements of each request in the {@value #METRIC} summary, tagged with the
+ * resource class and method that served it. The class is the one declaring the method, so the
+ * tags are the same whether a resource or its VirtualThread* variant is deployed.
+ * <p>
+ * Statements of a {@code StreamingOutput} run after the response filters and are not included.
+ */
+public class StatementCountFilter {
+
+  static final String METRIC = "http.server.db.statements";
+
+  @Inject
+  MeterRegistry meterRegistry;
+
+  @Inject
+  RequestStatements requestStatements;
+
+  @ServerResponseFilter
+  public void recordStatements(ResourceInfo resourceInfo) {
+    Method method = resourceInfo == null ? null : resourceInfo.getResourceMethod();
+    if (method == null) {
+      // no matching resource, nothing was queried
+      return;
+    }
+    DistributionSummary.builder(METRIC)
+            .description("SQL statements sent to the database per request")
+            .tag("class", method.getDeclaringClass().getName())
+            .tag("method", method.getName())
+            .register(meterRegistry)
+            .record(requestStatements.count());
+  }
+}
@@ -0,0 +1,27 @@
+package com.fulfilment.application.monolith.metrics;
+
+import io.quarkus.arc.Arc;
+import io.quarkus.hibernate.orm.PersistenceUnitExtension;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts every statement Hibernate prepares against the request it is prepared for.
+ * Statements outside a request, like the startup loads, are not counted.
+ */
+@PersistenceUnitExtension
+@ApplicationScoped
+public class StatementCountingInspector implements StatementInspector {
+
+  @Inject
+  RequestStatements requestStatements;
+
+  @Override
+  public String inspect(String sql) {
+    if (Arc.container().requestContext().isActive()) {
+      requestStatements.increment();
+    }
+    return sql;
+  }
+}
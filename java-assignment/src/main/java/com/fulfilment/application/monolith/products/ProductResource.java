@@ -2,6 +2,8 @@ package com.fulfilment.application.monolith.products;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fulfilment.application.monolith.fulfilment.FulfilmentConstraintIndex;
+import io.quarkus.arc.properties.UnlessBuildProperty;
 import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -21,6 +23,7 @@ import java.util.List;
 import org.jboss.logging.Logger;
 
 @Path("product")
+@UnlessBuildProperty(name = "warehouse.rest.virtual-threads", stringValue = "true", enableIfMissing = true)
 @ApplicationScoped
 @Produces("application/json")
 @Consumes("application/json")
@@ -28,6 +31,8 @@ public class ProductResource {
 
   @Inject ProductRepository productRepository;
 
+  @Inject FulfilmentConstraintIndex fulfilmentConstraintIndex;
+
   private static final Logger LOGGER = Logger.getLogger(ProductResource.class.getName());
 
   @GET
@@ -89,6 +94,8 @@ public class ProductResource {
       throw new WebApplicationException("Product with id of " + id + " does not exist.", 404);
     }
     productRepository.delete(entity);
+    // associations are removed by the database cascade
+    fulfilmentConstraintIndex.recordProductDeleted(entity.id);
     return Response.status(204).build();
   }
 
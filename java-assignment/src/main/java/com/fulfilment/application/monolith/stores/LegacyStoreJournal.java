@@ -0,0 +1,233 @@
+package com.fulfilment.application.monolith.stores;
+
+import io.quarkus.runtime.configuration.MemorySize;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Append-only journal of the records sent to the legacy store manager, in segment files
+ * journal-&lt;number&gt;.log under {@code legacy.journal.directory}. A new segment is started once
+ * the current one would grow past {@code legacy.journal.segment-size}.
+ * <p>
+ * Each record is framed as its length, a CRC32C of the payload and the UTF-8 payload, written
+ * with a single gathering write. {@link #append} only writes; {@link #sync} forces everything
+ * appended so far to disk with one fsync for all callers waiting at that moment (group commit).
+ * A torn record, left at the end of the last segment by a crash or by a failed write, is cut
+ * off on startup or right after the failure.
+ * Records are read back with a {@link LegacyStoreJournalReader}.
+ */
+@ApplicationScoped
+public class LegacyStoreJournal {
+
+  static final int HEADER_BYTES = 8;
+  static final String SEGMENT_PREFIX = "journal-";
+  static final String SEGMENT_SUFFIX = ".log";
+
+  private final Path directory;
+  private final long segmentBytes;
+
+  // guards the channel, its position and the append count; locks rather than monitors, so a
+  // virtual thread blocked on a write or an fsync does not pin its carrier thread
+  private final ReentrantLock writeLock = new ReentrantLock();
+  // held by the thread forcing the channel, the others wait for its fsync
+  private final ReentrantLock syncLock = new ReentrantLock();
+
+  private final ByteBuffer header = ByteBuffer.allocateDirect(HEADER_BYTES);
+  private final CRC32C crc = new CRC32C();
+
+  private FileChannel channel;
+  private long segment;
+  private long position;
+  // appends since this instance was opened, the tickets handed out by append
+  private long appends;
+  private final AtomicLong durable = new AtomicLong();
+
+  @Inject
+  public LegacyStoreJournal(
+          @ConfigProperty(name = "legacy.journal.directory") String directory,
+          @ConfigProperty(name = "legacy.journal.segment-size", defaultValue = "64M") MemorySize segmentSize) {
+    this(Path.of(directory), segmentSize.asLongValue());
+  }
+
+  LegacyStoreJournal(Path directory, long segmentBytes) {
+    this.directory = directory;
+    this.segmentBytes = segmentBytes;
+  }
+
+  @PostConstruct
+  void open() {
+    try {
+      Files.createDirectories(directory);
+      List<Long> segments = LegacyStoreJournalReader.segments(directory);
+      segment = segments.isEmpty() ? 1 : segments.get(segments.size() - 1);
+      channel = openSegment(segment, StandardOpenOption.CREATE);
+      position = LegacyStoreJournalReader.validEnd(channel);
+      // drops a record torn by a crash, appends continue after the last intact one
+      channel.truncate(position);
+      channel.position(position);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot open the legacy store journal in " + directory, e);
+    }
+  }
+
+  /**
+   * Append a record. It is written but not necessarily on disk until {@link #sync()} returns.
+   *
+   * @return a ticket for {@link #sync(long)}: the number of this append since the journal was
+   *     opened. It starts again at 1 in every process, so it does not identify the record in the
+   *     journal.
+   */
+  public long append(String record) {
+    byte[] payload = record.getBytes(StandardCharsets.UTF_8);
+    writeLock.lock();
+    try {
+      int frameBytes = HEADER_BYTES + payload.length;
+      if (position > 0 && position + frameBytes > segmentBytes) {
+        rotate();
+      }
+      crc.reset();
+      crc.update(payload);
+      header.clear();
+      header.putInt(payload.length).putInt((int) crc.getValue()).flip();
+      ByteBuffer body = ByteBuffer.wrap(payload);
+      while (header.hasRemaining() || body.hasRemaining()) {
+        channel.write(new ByteBuffer[] {header, body});
+      }
+      position += frameBytes;
+      return ++appends;
+    } catch (IOException e) {
+      discardTornFrame(e);
+      throw new UncheckedIOException("Cannot append to the legacy store journal", e);
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  /**
+   * Force all records appended so far to disk.
+   */
+  public void sync() {
+    long target;
+    writeLock.lock();
+    try {
+      target = appends;
+    } finally {
+      writeLock.unlock();
+    }
+    sync(target);
+  }
+
+  /**
+   * Wait until the records up to the append that returned {@code ticket} are on disk. One caller forces the channel
+   * for everything written at that point; callers arriving meanwhile find their records
+   * already covered and return without an fsync of their own.
+   */
+  public void sync(long ticket) {
+    syncLock.lock();
+    try {
+      if (durable.get() >= ticket) {
+        return;
+      }
+      FileChannel current;
+      long target;
+      writeLock.lock();
+      try {
+        current = channel;
+        target = appends;
+      } finally {
+        writeLock.unlock();
+      }
+      try {
+        current.force(false);
+      } catch (ClosedChannelException e) {
+        // rotated meanwhile, the rotation forced the segment before closing it
+        if (durable.get() < target) {
+          throw new UncheckedIOException("Legacy store journal closed", e);
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException("Cannot sync the legacy store journal", e);
+      }
+      durable.accumulateAndGet(target, Math::max);
+    } finally {
+      syncLock.unlock();
+    }
+  }
+
+  /**
+   * Number of the segment currently appended to.
+   */
+  public long segment() {
+    writeLock.lock();
+    try {
+      return segment;
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  public Path directory() {
+    return directory;
+  }
+
+  @PreDestroy
+  void close() {
+    writeLock.lock();
+    try {
+      if (channel != null && channel.isOpen()) {
+        channel.force(false);
+        durable.accumulateAndGet(appends, Math::max);
+        channel.close();
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot close the legacy store journal", e);
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  // called with the write lock held
+  private void rotate() throws IOException {
+    channel.force(false);
+    durable.accumulateAndGet(appends, Math::max);
+    channel.close();
+    segment++;
+    position = 0;
+    channel = openSegment(segment, StandardOpenOption.CREATE_NEW);
+  }
+
+  // called with the write lock held; cuts off the part of a frame a failed write left behind,
+  // so the next append does not land after it where readers would never reach it
+  private void discardTornFrame(IOException failure) {
+    try {
+      channel.truncate(position);
+      channel.position(position);
+    } catch (IOException e) {
+      failure.addSuppressed(e);
+    }
+  }
+
+  FileChannel openSegment(long segment, StandardOpenOption create) throws IOException {
+    return FileChannel.open(segmentPath(directory, segment),
+            create, StandardOpenOption.READ, StandardOpenOption.WRITE);
+  }
+
+  static Path segmentPath(Path directory, long segment) {
+    return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+  }
+}
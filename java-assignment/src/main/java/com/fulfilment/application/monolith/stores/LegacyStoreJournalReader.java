@@ -0,0 +1,130 @@
+package com.fulfilment.application.monolith.stores;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Reads the records of a {@link LegacyStoreJournal}, the way the legacy store manager consumes
+ * them. A reader keeps no state: the caller resumes from the {@link Entry#next} position of the
+ * last entry it processed. Reading stops at the end of the data written so far, including a
+ * record still being written.
+ */
+public class LegacyStoreJournalReader {
+
+  /**
+   * A place in the journal: a segment number and a byte offset within that segment.
+   */
+  public record Position(long segment, long offset) {
+
+    // before the first record of the oldest segment still present
+    public static final Position START = new Position(0, 0);
+  }
+
+  public record Entry(Position position, Position next, String payload) {}
+
+  private final Path directory;
+
+  public LegacyStoreJournalReader(Path directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * Up to {@code limit} entries from {@code from} on, across segments in order.
+   */
+  public List<Entry> read(Position from, int limit) throws IOException {
+    List<Entry> entries = new ArrayList<>();
+    List<Long> segments = segments(directory);
+    for (int i = 0; i < segments.size() && entries.size() < limit; i++) {
+      long segment = segments.get(i);
+      if (segment < from.segment()) {
+        continue;
+      }
+      long offset = segment == from.segment() ? from.offset() : 0;
+      try (FileChannel channel = FileChannel.open(LegacyStoreJournal.segmentPath(directory, segment),
+              StandardOpenOption.READ)) {
+        byte[] payload;
+        while (entries.size() < limit && (payload = readRecord(channel, offset)) != null) {
+          long next = offset + LegacyStoreJournal.HEADER_BYTES + payload.length;
+          entries.add(new Entry(new Position(segment, offset), new Position(segment, next),
+                  new String(payload, StandardCharsets.UTF_8)));
+          offset = next;
+        }
+      } catch (NoSuchFileException e) {
+        // removed after listing, the later segments still follow in order
+      }
+    }
+    return entries;
+  }
+
+  /**
+   * The payload of the record at {@code offset}, or null when there is no complete, intact
+   * record there.
+   */
+  static byte[] readRecord(FileChannel channel, long offset) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(LegacyStoreJournal.HEADER_BYTES);
+    if (!readFully(channel, header, offset)) {
+      return null;
+    }
+    int length = header.getInt(0);
+    int checksum = header.getInt(4);
+    if (length <= 0 || offset + LegacyStoreJournal.HEADER_BYTES + length > channel.size()) {
+      return null;
+    }
+    ByteBuffer payload = ByteBuffer.allocate(length);
+    if (!readFully(channel, payload, offset + LegacyStoreJournal.HEADER_BYTES)) {
+      return null;
+    }
+    CRC32C crc = new CRC32C();
+    crc.update(payload.array());
+    if ((int) crc.getValue() != checksum) {
+      return null;
+    }
+    return payload.array();
+  }
+
+  /**
+   * Offset just past the last intact record of a segment.
+   */
+  static long validEnd(FileChannel channel) throws IOException {
+    long offset = 0;
+    byte[] payload;
+    while ((payload = readRecord(channel, offset)) != null) {
+      offset += LegacyStoreJournal.HEADER_BYTES + payload.length;
+    }
+    return offset;
+  }
+
+  static List<Long> segments(Path directory) throws IOException {
+    if (!Files.isDirectory(directory)) {
+      return List.of();
+    }
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.map(path -> path.getFileName().toString())
+              .filter(name -> name.startsWith(LegacyStoreJournal.SEGMENT_PREFIX)
+                      && name.endsWith(LegacyStoreJournal.SEGMENT_SUFFIX))
+              .map(name -> Long.parseLong(name.substring(LegacyStoreJournal.SEGMENT_PREFIX.length(),
+                      name.length() - LegacyStoreJournal.SEGMENT_SUFFIX.length())))
+              .sorted()
+              .toList();
+    }
+  }
+
+  private static boolean readFully(FileChannel channel, ByteBuffer buffer, long offset) throws IOException {
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, offset + buffer.position()) < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -1,51 +1,57 @@
 package com.fulfilment.application.monolith.stores;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.enterprise.context.ApplicationScoped;
-import java.nio.file.Files;
-import java.nio.file.Path;
-
+import jakarta.inject.Inject;
+import java.io.UncheckedIOException;
+import org.jboss.logging.Logger;
+
+/**
+ * Client of the legacy store manager, called by the {@link StoreOutboxDispatcher}. A failed
+ * call throws, so the change stays in the outbox and is retried. The legacy system applies a
+ * change once per idempotency key.
+ * <p>
+ * Changes are handed over through the {@link LegacyStoreJournal}, one JSON {@link Change} per
+ * record. They count as sent once {@link #flush()} returns.
+ */
 @ApplicationScoped
 public class LegacyStoreManagerGateway {
 
-  public void createStoreOnLegacySystem(Store store) {
-    // just to emulate as this would send this to a legacy system, let's write a temp file with the
-    writeToFile(store);
-  }
+  private static final Logger LOGGER = Logger.getLogger(LegacyStoreManagerGateway.class.getName());
 
-  public void updateStoreOnLegacySystem(Store store) {
-    // just to emulate as this would send this to a legacy system, let's write a temp file with the
-    writeToFile(store);
-  }
-
-  private void writeToFile(Store store) {
-    try {
-      // Step 1: Create a temporary file
-      Path tempFile;
+  /**
+   * A record of the journal, as read by the legacy store manager.
+   */
+  public record Change(
+      String change, String idempotencyKey, Long storeId, String name, int quantityProductsInStock) {}
 
-      tempFile = Files.createTempFile(store.name, ".txt");
+  @Inject LegacyStoreJournal journal;
 
-      System.out.println("Temporary file created at: " + tempFile.toString());
+  @Inject ObjectMapper objectMapper;
 
-      // Step 2: Write data to the temporary file
-      String content =
-          "Store created. [ name ="
-              + store.name
-              + " ] [ items on stock ="
-              + store.quantityProductsInStock
-              + "]";
-      Files.write(tempFile, content.getBytes());
-      System.out.println("Data written to temporary file.");
+  public void createStoreOnLegacySystem(Store store, String idempotencyKey) {
+    append("Store created.", store, idempotencyKey);
+  }
 
-      // Step 3: Optionally, read the data back to verify
-      String readContent = new String(Files.readAllBytes(tempFile));
-      System.out.println("Data read from temporary file: " + readContent);
+  public void updateStoreOnLegacySystem(Store store, String idempotencyKey) {
+    append("Store updated.", store, idempotencyKey);
+  }
 
-      // Step 4: Delete the temporary file when done
-      Files.delete(tempFile);
-      System.out.println("Temporary file deleted.");
+  /**
+   * Make the changes appended so far durable, with one sync for all of them.
+   */
+  public void flush() {
+    journal.sync();
+  }
 
-    } catch (Exception e) {
-      e.printStackTrace();
+  private void append(String change, Store store, String idempotencyKey) {
+    try {
+      journal.append(objectMapper.writeValueAsString(
+              new Change(change, idempotencyKey, store.id, store.name, store.quantityProductsInStock)));
+      LOGGER.debugf("Sent to the legacy store manager: %s [ key = %s ]", change, idempotencyKey);
+    } catch (JsonProcessingException e) {
+      throw new UncheckedIOException("Legacy store manager call failed for store " + store.id, e);
     }
   }
 }
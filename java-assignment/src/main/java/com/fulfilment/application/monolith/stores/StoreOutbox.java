@@ -0,0 +1,71 @@
+package com.fulfilment.application.monolith.stores;
+
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.LockModeType;
+import jakarta.transaction.Transactional;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.LockOptions;
+
+@ApplicationScoped
+public class StoreOutbox implements PanacheRepository<StoreOutboxEvent> {
+
+  // earlier events of the same store go first, unless they ran out of attempts
+  private static final String DUE = "FROM StoreOutboxEvent e"
+          + " WHERE e.dispatchedAt IS NULL AND e.nextAttemptAt <= ?1 AND e.attempts < ?2"
+          + " AND NOT EXISTS (SELECT 1 FROM StoreOutboxEvent earlier WHERE earlier.storeId = e.storeId"
+          + " AND earlier.dispatchedAt IS NULL AND earlier.attempts < ?2 AND earlier.id < e.id)"
+          + " ORDER BY e.id";
+
+  private static final String PENDING_UPDATES = "FROM StoreOutboxEvent e"
+          + " WHERE e.storeId IN ?1 AND e.type = ?2 AND e.dispatchedAt IS NULL AND e.attempts < ?3"
+          + " ORDER BY e.id";
+
+  // an update is held back this long, so the updates that follow it can be sent as one
+  @ConfigProperty(name = "store.outbox.coalesce-window", defaultValue = "2s")
+  Duration coalesceWindow;
+
+  /**
+   * Record a change of {@code store}; it is only sent if the calling transaction commits.
+   */
+  @Transactional(Transactional.TxType.MANDATORY)
+  public StoreOutboxEvent record(StoreOutboxEvent.Type type, Store store) {
+    StoreOutboxEvent event = new StoreOutboxEvent(type, store);
+    if (type == StoreOutboxEvent.Type.UPDATED) {
+      event.nextAttemptAt = event.createdAt.plus(coalesceWindow);
+    }
+    persist(event);
+    return event;
+  }
+
+  /**
+   * The events due at {@code now}, oldest first, locked until the calling transaction ends.
+   * Rows locked by another dispatcher are skipped rather than waited for.
+   */
+  @Transactional(Transactional.TxType.MANDATORY)
+  public List<StoreOutboxEvent> lockDue(LocalDateTime now, int maxAttempts, int limit) {
+    return find(DUE, now, maxAttempts)
+            .withLock(LockModeType.PESSIMISTIC_WRITE)
+            .withHint("jakarta.persistence.lock.timeout", LockOptions.SKIP_LOCKED)
+            .page(0, limit)
+            .list();
+  }
+
+  /**
+   * The pending updates of the given stores, due or not, oldest first and locked until the
+   * calling transaction ends.
+   */
+  @Transactional(Transactional.TxType.MANDATORY)
+  public List<StoreOutboxEvent> lockPendingUpdates(Collection<Long> storeIds, int maxAttempts) {
+    if (storeIds.isEmpty()) {
+      return List.of();
+    }
+    return find(PENDING_UPDATES, storeIds, StoreOutboxEvent.Type.UPDATED, maxAttempts)
+            .withLock(LockModeType.PESSIMISTIC_WRITE)
+            .list();
+  }
+}
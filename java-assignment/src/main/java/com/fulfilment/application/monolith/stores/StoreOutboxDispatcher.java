@@ -0,0 +1,182 @@
+package com.fulfilment.application.monolith.stores;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Sends the recorded store changes to the legacy store manager in the background, in batches of
+ * {@code store.outbox.batch-size} per transaction.
+ * <p>
+ * A failed send is retried with exponential backoff, from {@code store.outbox.initial-backoff}
+ * up to {@code store.outbox.max-backoff}, until {@code store.outbox.max-attempts} is reached;
+ * the event then stays in the outbox with its last error. Later changes of the same store wait
+ * for a failed one, so the legacy system sees the changes of a store in order. Delivery is at
+ * least once: an event sent just before a crash is sent again, under the same idempotency key.
+ * <p>
+ * Updates are held back for {@code store.outbox.coalesce-window} after they are recorded. When
+ * an update is due, it and the later pending updates of the same store are sent as a single
+ * update with the latest state; the {@value #COALESCED} counter tracks the sends saved.
+ */
+@ApplicationScoped
+public class StoreOutboxDispatcher {
+
+  private static final Logger LOGGER = Logger.getLogger(StoreOutboxDispatcher.class.getName());
+
+  private static final int MAX_ERROR_LENGTH = 500;
+
+  static final String SENT = "store.outbox.sent";
+  static final String COALESCED = "store.outbox.coalesced";
+
+  @Inject StoreOutbox outbox;
+
+  @Inject LegacyStoreManagerGateway legacyStoreManagerGateway;
+
+  @Inject MeterRegistry meterRegistry;
+
+  @ConfigProperty(name = "store.outbox.batch-size", defaultValue = "100")
+  int batchSize;
+
+  @ConfigProperty(name = "store.outbox.max-attempts", defaultValue = "10")
+  int maxAttempts;
+
+  @ConfigProperty(name = "store.outbox.initial-backoff", defaultValue = "1s")
+  Duration initialBackoff;
+
+  @ConfigProperty(name = "store.outbox.max-backoff", defaultValue = "5m")
+  Duration maxBackoff;
+
+  @Scheduled(
+      every = "${store.outbox.poll-interval}",
+      concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+  void poll() {
+    // a full batch means more events may be due
+    while (dispatch() == batchSize) {
+      LOGGER.debugf("Store outbox batch of %d sent, sending the next", batchSize);
+    }
+  }
+
+  /**
+   * Send one batch of due events in a transaction of its own.
+   *
+   * @return the number of events attempted
+   */
+  public int dispatch() {
+    Counts counts = new Counts();
+    int batch = QuarkusTransaction.requiringNew().call(() -> {
+      LocalDateTime now = LocalDateTime.now();
+      List<StoreOutboxEvent> due = outbox.lockDue(now, maxAttempts, batchSize);
+      Map<Long, List<StoreOutboxEvent>> pendingUpdates = pendingUpdates(due);
+      Set<Long> failedStores = new HashSet<>();
+      int attempted = 0;
+      for (StoreOutboxEvent event : due) {
+        // keeps the order behind a store change that just failed
+        if (event.storeId != null && failedStores.contains(event.storeId)) {
+          continue;
+        }
+        attempted++;
+        List<StoreOutboxEvent> updates = event.type == StoreOutboxEvent.Type.UPDATED
+                ? pendingUpdates.getOrDefault(event.storeId, List.of())
+                : List.of();
+        if (!send(event, updates, now, counts)) {
+          failedStores.add(event.storeId);
+        }
+      }
+      if (attempted > 0) {
+        // one sync for the batch; if it fails the transaction rolls back and the batch is sent
+        // again under the same keys
+        legacyStoreManagerGateway.flush();
+      }
+      return attempted;
+    });
+    // only once the batch is committed: a rolled-back batch is sent again
+    counts.record(meterRegistry);
+    return batch;
+  }
+
+  /**
+   * All pending updates, due or not, of the stores with a due update, by store id.
+   */
+  private Map<Long, List<StoreOutboxEvent>> pendingUpdates(List<StoreOutboxEvent> due) {
+    Set<Long> storeIds = due.stream()
+            .filter(event -> event.type == StoreOutboxEvent.Type.UPDATED && event.storeId != null)
+            .map(event -> event.storeId)
+            .collect(Collectors.toSet());
+    return outbox.lockPendingUpdates(storeIds, maxAttempts).stream()
+            .collect(Collectors.groupingBy(event -> event.storeId));
+  }
+
+  /**
+   * Send {@code event}, or for an update the latest of {@code updates}, which holds the event
+   * itself and the later updates of its store.
+   */
+  private boolean send(StoreOutboxEvent event, List<StoreOutboxEvent> updates, LocalDateTime now,
+                       Counts counts) {
+    StoreOutboxEvent latest = updates.isEmpty() ? event : updates.get(updates.size() - 1);
+    event.attempts++;
+    try {
+      switch (event.type) {
+        case CREATED -> legacyStoreManagerGateway.createStoreOnLegacySystem(event.toStore(), event.idempotencyKey);
+        case UPDATED -> legacyStoreManagerGateway.updateStoreOnLegacySystem(latest.toStore(), latest.idempotencyKey);
+      }
+      counts.sent.merge(event.type, 1, Integer::sum);
+
+      for (StoreOutboxEvent update : updates) {
+        if (update != latest) {
+          update.dispatchedAt = now;
+          update.coalescedInto = latest.id;
+        }
+      }
+      counts.coalesced += Math.max(updates.size() - 1, 0);
+      event.dispatchedAt = now;
+      event.lastError = null;
+      latest.dispatchedAt = now;
+      return true;
+    } catch (RuntimeException e) {
+      String error = String.valueOf(e.getMessage());
+      event.lastError = error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+      event.nextAttemptAt = now.plus(backoff(event.attempts));
+      if (event.attempts >= maxAttempts) {
+        LOGGER.errorf(e, "Giving up on store outbox event %d after %d attempts", event.id, event.attempts);
+      } else {
+        LOGGER.warnf("Store outbox event %d failed, attempt %d retried at %s: %s",
+                event.id, event.attempts, event.nextAttemptAt, error);
+      }
+      return false;
+    }
+  }
+
+  Duration backoff(int attempts) {
+    Duration backoff = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 30));
+    return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+  }
+
+  /**
+   * The sends and coalesced updates of one batch, added to the counters after its transaction commits.
+   */
+  private static final class Counts {
+
+    final Map<StoreOutboxEvent.Type, Integer> sent = new EnumMap<>(StoreOutboxEvent.Type.class);
+
+    int coalesced;
+
+    void record(MeterRegistry meterRegistry) {
+      sent.forEach((type, count) -> meterRegistry.counter(SENT, "type", type.name()).increment(count));
+      if (coalesced > 0) {
+        meterRegistry.counter(COALESCED).increment(coalesced);
+      }
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package com.fulfilment.application.monolith.stores;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A store change waiting to be sent to the legacy store manager, written in the transaction of
+ * the change itself. The store fields are copied, so the event is sent as it was committed
+ * even if the store changed again or was deleted since.
+ */
+@Entity
+@Table(
+    name = "store_outbox",
+    indexes = @Index(name = "idx_store_outbox_pending", columnList = "dispatchedAt, nextAttemptAt, id"))
+public class StoreOutboxEvent extends PanacheEntity {
+
+  public enum Type {
+    CREATED,
+    UPDATED
+  }
+
+  @Enumerated(EnumType.STRING)
+  @Column(length = 16, nullable = false)
+  public Type type;
+
+  public Long storeId;
+
+  @Column(length = 40)
+  public String name;
+
+  public int quantityProductsInStock;
+
+  // sent along with the event, the legacy system ignores a key it has already applied
+  @Column(length = 36, nullable = false, unique = true)
+  public String idempotencyKey;
+
+  public LocalDateTime createdAt;
+
+  public int attempts;
+
+  public LocalDateTime nextAttemptAt;
+
+  public LocalDateTime dispatchedAt;
+
+  // the later update that was sent in place of this one
+  public Long coalescedInto;
+
+  @Column(length = 500)
+  public String lastError;
+
+  public StoreOutboxEvent() {}
+
+  public StoreOutboxEvent(Type type, Store store) {
+    this.type = type;
+    this.storeId = store.id;
+    this.name = store.name;
+    this.quantityProductsInStock = store.quantityProductsInStock;
+    this.idempotencyKey = UUID.randomUUID().toString();
+    this.createdAt = LocalDateTime.now();
+    this.nextAttemptAt = createdAt;
+  }
+
+  /**
+   * The store as it was when the event was recorded.
+   */
+  public Store toStore() {
+    Store store = new Store(name);
+    store.id = storeId;
+    store.quantityProductsInStock = quantityProductsInStock;
+    return store;
+  }
+}
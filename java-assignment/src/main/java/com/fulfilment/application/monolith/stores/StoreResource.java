@@ -2,6 +2,8 @@ package com.fulfilment.application.monolith.stores;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fulfilment.application.monolith.fulfilment.FulfilmentConstraintIndex;
+import io.quarkus.arc.properties.UnlessBuildProperty;
 import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -20,20 +22,18 @@ import jakarta.ws.rs.ext.ExceptionMapper;
 import jakarta.ws.rs.ext.Provider;
 import java.util.List;
 import org.jboss.logging.Logger;
-import jakarta.transaction.TransactionSynchronizationRegistry;
-import jakarta.transaction.Status;
-import jakarta.transaction.Synchronization;
 
 @Path("store")
+@UnlessBuildProperty(name = "warehouse.rest.virtual-threads", stringValue = "true", enableIfMissing = true)
 @ApplicationScoped
 @Produces("application/json")
 @Consumes("application/json")
 public class StoreResource {
 
-  @Inject LegacyStoreManagerGateway legacyStoreManagerGateway;
+  // changes reach the legacy store manager through the outbox, see StoreOutboxDispatcher
+  @Inject StoreOutbox storeOutbox;
 
-  @Inject
-  TransactionSynchronizationRegistry txRegistry;
+  @Inject FulfilmentConstraintIndex fulfilmentConstraintIndex;
 
   private static final Logger LOGGER = Logger.getLogger(StoreResource.class.getName());
 
@@ -60,18 +60,7 @@ public class StoreResource {
     }
 
     store.persist();
-    txRegistry.registerInterposedSynchronization(
-            new Synchronization() {
-              @Override
-              public void beforeCompletion() {}
-
-              @Override
-              public void afterCompletion(int status) {
-                if (status == Status.STATUS_COMMITTED) {
-                     legacyStoreManagerGateway.createStoreOnLegacySystem(store);
-                }
-              }
-            });
+    storeOutbox.record(StoreOutboxEvent.Type.CREATED, store);
 
     return Response.ok(store).status(201).build();
   }
@@ -92,19 +81,7 @@ public class StoreResource {
 
     entity.name = updatedStore.name;
     entity.quantityProductsInStock = updatedStore.quantityProductsInStock;
-    txRegistry.registerInterposedSynchronization(
-            new Synchronization() {
-              @Override
-              public void beforeCompletion() {
-              }
-
-              @Override
-              public void afterCompletion(int status) {
-                if (status == Status.STATUS_COMMITTED) {
-                  legacyStoreManagerGateway.updateStoreOnLegacySystem(updatedStore);
-                }
-              }
-            });
+    storeOutbox.record(StoreOutboxEvent.Type.UPDATED, entity);
 
     return entity;
   }
@@ -129,19 +106,7 @@ public class StoreResource {
 
     entity.quantityProductsInStock = updatedStore.quantityProductsInStock;
 
-    txRegistry.registerInterposedSynchronization(
-            new Synchronization() {
-              @Override
-              public void beforeCompletion() {
-              }
-
-              @Override
-              public void afterCompletion(int status) {
-                if (status == Status.STATUS_COMMITTED) {
-                  legacyStoreManagerGateway.updateStoreOnLegacySystem(updatedStore);
-                }
-              }
-            });
+    storeOutbox.record(StoreOutboxEvent.Type.UPDATED, entity);
 
     return entity;
   }
@@ -155,6 +120,8 @@ public class StoreResource {
       throw new WebApplicationException("Store with id of " + id + " does not exist.", 404);
     }
     entity.delete();
+    // associations are removed by the database cascade
+    fulfilmentConstraintIndex.recordStoreDeleted(entity.id);
     return Response.status(204).build();
   }
 
@@ -0,0 +1,22 @@
+package com.fulfilment.application.monolith.stores;
+
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Typed;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+
+/**
+ * {@link StoreResource} with its endpoints on virtual threads, in place of it when the application
+ * is built with warehouse.rest.virtual-threads=true, which needs JDK 21+.
+ */
+@Path("store")
+@ApplicationScoped
+@Produces("application/json")
+@Consumes("application/json")
+@RunOnVirtualThread
+@Typed({VirtualThreadStoreResource.class, StoreResource.class})
+@IfBuildProperty(name = "warehouse.rest.virtual-threads", stringValue = "true")
+public class VirtualThreadStoreResource extends StoreResource {}
@@ -0,0 +1,18 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(name = "location_capacity_ledger")
+public class DbLocationLedger {
+
+  @Id public String location;
+
+  public long numberOfWarehouses;
+
+  public long totalCapacity;
+
+  public DbLocationLedger() {}
+}
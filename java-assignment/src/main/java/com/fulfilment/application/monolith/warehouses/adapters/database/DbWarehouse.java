@@ -5,11 +5,20 @@ import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "warehouse")
+@Table(
+    name = "warehouse",
+    indexes = @Index(name = "idx_warehouse_location_archived", columnList = "location, archivedAt, id"),
+    uniqueConstraints =
+        @UniqueConstraint(name = "uk_warehouse_active_business_unit", columnNames = "activeBusinessUnitCode"))
 @Cacheable
 public class DbWarehouse {
 
@@ -27,8 +36,21 @@ public class DbWarehouse {
 
   public LocalDateTime archivedAt;
 
+  // businessUnitCode while active, null once archived: a unique index over it allows any
+  // number of archived rows but a single active one, without needing partial index support
+  public String activeBusinessUnitCode;
+
+  // guards against concurrent replaces and archives of the same row
+  @Version public Long version;
+
   public DbWarehouse() {}
 
+  @PrePersist
+  @PreUpdate
+  void trackActiveBusinessUnitCode() {
+    activeBusinessUnitCode = archivedAt == null ? businessUnitCode : null;
+  }
+
   public Warehouse toWarehouse() {
     var warehouse = new Warehouse();
 
@@ -39,6 +61,7 @@ public class DbWarehouse {
     warehouse.stock = this.stock;
     warehouse.createdAt = this.createdAt;
     warehouse.archivedAt = this.archivedAt;
+    warehouse.version = this.version;
     return warehouse;
   }
 
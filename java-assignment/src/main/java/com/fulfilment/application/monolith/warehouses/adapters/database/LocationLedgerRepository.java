@@ -0,0 +1,98 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationOccupancy;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationCapacityLedger;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import io.micrometer.core.annotation.Timed;
+import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.LockModeType;
+import jakarta.transaction.Transactional;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.Session;
+
+/**
+ * Ledger rows are locked with SELECT ... FOR UPDATE. A location without a row yet is seeded
+ * from the warehouse table the first time it is used, in the transaction that uses it.
+ */
+@ApplicationScoped
+@Timed("warehouse.repository")
+public class LocationLedgerRepository
+        implements LocationCapacityLedger, PanacheRepositoryBase<DbLocationLedger, String> {
+
+  private static final String UNIQUE_VIOLATION = "23505";
+
+  // a concurrent seed of the same location is skipped, not reported as a duplicate key
+  private static final String INSERT_LEDGER_POSTGRESQL =
+          "INSERT INTO location_capacity_ledger (location, numberOfWarehouses, totalCapacity) "
+                  + "VALUES (?, ?, ?) ON CONFLICT (location) DO NOTHING";
+  // skips an existing row; a concurrent insert may still report a duplicate key
+  private static final String INSERT_LEDGER_STANDARD =
+          "INSERT INTO location_capacity_ledger (location, numberOfWarehouses, totalCapacity) "
+                  + "SELECT ?1, ?2, ?3 WHERE NOT EXISTS "
+                  + "(SELECT 1 FROM location_capacity_ledger WHERE location = ?1)";
+
+  @ConfigProperty(name = "quarkus.datasource.db-kind")
+  String dbKind;
+
+  @Inject
+  WarehouseStore warehouseStore;
+
+  @Override
+  @Transactional(Transactional.TxType.MANDATORY)
+  public LocationOccupancy lock(String location) {
+    DbLocationLedger entry = findById(location, LockModeType.PESSIMISTIC_WRITE);
+    if (entry == null) {
+      seed(location);
+      entry = findById(location, LockModeType.PESSIMISTIC_WRITE);
+      if (entry == null) {
+        throw new IllegalStateException("Location ledger could not be seeded: " + location);
+      }
+    }
+    return new LocationOccupancy(entry.numberOfWarehouses, entry.totalCapacity);
+  }
+
+  @Override
+  @Transactional(Transactional.TxType.MANDATORY)
+  public void adjust(String location, int warehouses, int capacity) {
+    DbLocationLedger entry = findById(location);
+    if (entry == null) {
+      throw new IllegalStateException("Location ledger not locked: " + location);
+    }
+    entry.numberOfWarehouses += warehouses;
+    entry.totalCapacity += capacity;
+  }
+
+  /**
+   * Insert the ledger row of a location in the current transaction unless it exists. Losing the
+   * race against a concurrent seed of the same row inserts nothing; the row of the winner is then
+   * locked instead. No savepoint is involved: on PostgreSQL the statement skips the duplicate,
+   * on H2 a duplicate fails the statement alone, which leaves the transaction usable. Any other
+   * error is rethrown.
+   * <p>
+   * Seeding in a transaction of its own would need a second pooled connection while the caller
+   * holds one, which deadlocks once concurrent first uses of locations exhaust the pool.
+   */
+  private void seed(String location) {
+    LocationOccupancy occupancy = warehouseStore.occupancyOf(location);
+    String sql = "postgresql".equals(dbKind) ? INSERT_LEDGER_POSTGRESQL : INSERT_LEDGER_STANDARD;
+    // through the session's connection, as a PersistenceException would mark the transaction
+    // for rollback even for the duplicate of a lost race
+    getEntityManager().unwrap(Session.class).doWork(connection -> {
+      try (PreparedStatement insert = connection.prepareStatement(sql)) {
+        insert.setString(1, location);
+        insert.setLong(2, occupancy.numberOfWarehouses);
+        insert.setLong(3, occupancy.totalCapacity);
+        insert.executeUpdate();
+      } catch (SQLException e) {
+        if (!UNIQUE_VIOLATION.equals(e.getSQLState())) {
+          throw e;
+        }
+        // seeded by a concurrent request in the meantime
+      }
+    });
+  }
+}
@@ -1,17 +1,36 @@
 package com.fulfilment.application.monolith.warehouses.adapters.database;
 
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationOccupancy;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseSnapshot;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import io.micrometer.core.annotation.Timed;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.EntityExistsException;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PersistenceException;
+import jakarta.persistence.TypedQuery;
 import jakarta.transaction.Transactional;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.jpa.HibernateHints;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @ApplicationScoped
+@Timed("warehouse.repository")
 public class WarehouseRepository implements WarehouseStore, PanacheRepository<DbWarehouse> {
 
+  static final int STREAM_FETCH_SIZE = 100;
+
+  private static final String ACTIVE_BUSINESS_UNIT_CONSTRAINT = "uk_warehouse_active_business_unit";
+
+  private static final String SELECT_SNAPSHOT = "SELECT new " + WarehouseSnapshot.class.getName()
+          + "(w.id, w.businessUnitCode, w.location, w.capacity, w.stock) FROM DbWarehouse w ";
 
   @Override
   public List<Warehouse> getAll() {
@@ -25,34 +44,88 @@ public class WarehouseRepository implements WarehouseStore, PanacheRepository<Db
 
   @Override
   @Transactional
-  public void create(Warehouse warehouse) {
-    DbWarehouse entity = new DbWarehouse();
-    entity.businessUnitCode = warehouse.businessUnitCode;
-    entity.location = warehouse.location;
-    entity.capacity = warehouse.capacity;
-    entity.stock = warehouse.stock;
-    entity.createdAt = LocalDateTime.now();
-    entity.archivedAt = null;
+  public void forEachActive(String location, long afterId, int limit, Consumer<WarehouseSnapshot> action) {
+    TypedQuery<WarehouseSnapshot> query = getEntityManager()
+            .createQuery(SELECT_SNAPSHOT + "WHERE w.archivedAt IS NULL AND w.id > :afterId"
+                    + (location == null ? "" : " AND w.location = :location")
+                    + " ORDER BY w.id", WarehouseSnapshot.class)
+            .setParameter("afterId", afterId)
+            .setMaxResults(limit)
+            .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE);
+    if (location != null) {
+      query.setParameter("location", location);
+    }
+
+    try (Stream<WarehouseSnapshot> rows = query.getResultStream()) {
+      rows.forEach(action);
+    }
+  }
+
 
+  @Override
+  @Transactional
+  public void create(Warehouse warehouse) {
+    DbWarehouse entity = toEntity(warehouse);
     persist(entity);
+    try {
+      // a concurrent create of the same business unit surfaces here, where the caller can still handle it
+      flush();
+    } catch (PersistenceException e) {
+      if (violates(e, ACTIVE_BUSINESS_UNIT_CONSTRAINT)) {
+        throw new EntityExistsException(
+                "Business unit already exists: " + warehouse.businessUnitCode, e);
+      }
+      throw e;
+    }
+
+    // lets later updates of this warehouse find the row by id
+    warehouse.id = entity.id;
+    warehouse.version = entity.version;
   }
 
   @Override
   @Transactional
   public void update(Warehouse warehouse) {
-    DbWarehouse entity =
-            find("businessUnitCode", warehouse.businessUnitCode)
-                    .firstResult();
+    DbWarehouse entity = findEntity(warehouse);
 
     if (entity == null) {
       throw new IllegalArgumentException(
               "Warehouse not found: " + warehouse.businessUnitCode);
     }
+    if (warehouse.version != null && !warehouse.version.equals(entity.version)) {
+      throw new OptimisticLockException(
+              "Warehouse was changed concurrently: " + warehouse.businessUnitCode);
+    }
 
     entity.location = warehouse.location;
     entity.capacity = warehouse.capacity;
     entity.stock = warehouse.stock;
     entity.archivedAt = warehouse.archivedAt;
+
+    // a stale version surfaces here, where the caller can still handle it
+    flush();
+  }
+
+  @Override
+  @Transactional
+  public void replace(Warehouse current, Warehouse replacement) {
+    // already managed when current was read in this transaction, so no query is issued
+    DbWarehouse entity = findById(current.id);
+    if (entity == null || !Objects.equals(entity.version, current.version)) {
+      throw new OptimisticLockException(
+              "Warehouse was changed concurrently: " + current.businessUnitCode);
+    }
+
+    entity.archivedAt = current.archivedAt;
+    // the archive must reach the database before the insert, which Hibernate would otherwise
+    // order first and so break the unique index on active business unit codes
+    flush();
+
+    DbWarehouse inserted = toEntity(replacement);
+    persist(inserted);
+    flush();
+    replacement.id = inserted.id;
+    replacement.version = inserted.version;
   }
 
   /**
@@ -67,8 +140,10 @@ public class WarehouseRepository implements WarehouseStore, PanacheRepository<Db
 
   @Override
   public Warehouse findByBusinessUnitCode(String buCode) {
+    // repeated lookups are answered from the query cache until the table is written
     DbWarehouse entity =
             find("businessUnitCode = ?1 and archivedAt is null", buCode)
+                    .withHint(HibernateHints.HINT_CACHEABLE, true)
                     .firstResult();
 
     return entity == null ? null : entity.toWarehouse();
@@ -77,11 +152,55 @@ public class WarehouseRepository implements WarehouseStore, PanacheRepository<Db
 
     public Warehouse findActiveById(Long id) {
 
-        DbWarehouse entity =
-                find("id = ?1 and archivedAt is null", id)
-                        .firstResult();
+        // an entity cache hit, archived rows are filtered here instead of in a query
+        DbWarehouse entity = id == null ? null : findById(id);
 
-        return entity == null ? null : entity.toWarehouse();
+        return entity == null || entity.archivedAt != null ? null : entity.toWarehouse();
     }
 
-}
\ No newline at end of file
+  @Override
+  public LocationOccupancy occupancyOf(String location) {
+    Object[] row = getEntityManager()
+            .createQuery("SELECT COUNT(w), COALESCE(SUM(w.capacity), 0) FROM DbWarehouse w "
+                    + "WHERE w.location = ?1 AND w.archivedAt IS NULL", Object[].class)
+            .setParameter(1, location)
+            .getSingleResult();
+
+    return new LocationOccupancy(((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+  }
+
+  // by id when the warehouse was read through this store: a persistence context or cache hit
+  private DbWarehouse findEntity(Warehouse warehouse) {
+    if (warehouse.id != null) {
+      return findById(warehouse.id);
+    }
+    return find("businessUnitCode = ?1 and archivedAt is null", warehouse.businessUnitCode)
+            .firstResult();
+  }
+
+  private static DbWarehouse toEntity(Warehouse warehouse) {
+    DbWarehouse entity = new DbWarehouse();
+    entity.businessUnitCode = warehouse.businessUnitCode;
+    entity.location = warehouse.location;
+    entity.capacity = warehouse.capacity;
+    entity.stock = warehouse.stock;
+    entity.createdAt = LocalDateTime.now();
+    entity.archivedAt = null;
+    return entity;
+  }
+
+
+  /**
+   * Whether the exception was caused by a violation of the named constraint. Databases report
+   * the name in their own case, and H2 reports the name of the index backing the constraint.
+   */
+  private static boolean violates(PersistenceException e, String constraint) {
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof ConstraintViolationException violation) {
+        String name = violation.getConstraintName();
+        return name != null && name.toLowerCase().contains(constraint);
+      }
+    }
+    return false;
+  }
+}
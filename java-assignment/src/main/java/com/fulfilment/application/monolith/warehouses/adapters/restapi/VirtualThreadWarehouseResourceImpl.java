@@ -0,0 +1,18 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import jakarta.enterprise.context.RequestScoped;
+import jakarta.enterprise.inject.Typed;
+import jakarta.ws.rs.Path;
+
+/**
+ * {@link WarehouseResourceImpl} with its endpoints on virtual threads, in place of it when the application
+ * is built with warehouse.rest.virtual-threads=true, which needs JDK 21+.
+ */
+@Path("/warehouse")
+@RequestScoped
+@RunOnVirtualThread
+@Typed({VirtualThreadWarehouseResourceImpl.class, WarehouseResourceImpl.class})
+@IfBuildProperty(name = "warehouse.rest.virtual-threads", stringValue = "true")
+public class VirtualThreadWarehouseResourceImpl extends WarehouseResourceImpl {}
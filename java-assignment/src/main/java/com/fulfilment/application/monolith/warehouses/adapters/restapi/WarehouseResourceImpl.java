@@ -1,42 +1,94 @@
 package com.fulfilment.application.monolith.warehouses.adapters.restapi;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseSnapshot;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
 import com.fulfilment.application.monolith.warehouses.domain.usecases.ArchiveWarehouseUseCase;
 import com.fulfilment.application.monolith.warehouses.domain.usecases.CreateWarehouseUseCase;
 import com.fulfilment.application.monolith.warehouses.domain.usecases.ReplaceWarehouseUseCase;
 import com.warehouse.api.WarehouseResource;
 import com.warehouse.api.beans.Warehouse;
+import io.quarkus.arc.properties.UnlessBuildProperty;
 import jakarta.enterprise.context.RequestScoped;
 import jakarta.inject.Inject;
+import jakarta.persistence.EntityExistsException;
 import jakarta.transaction.Transactional;
 import jakarta.validation.constraints.NotNull;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.StreamingOutput;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashSet;
+import java.util.Set;
 
+// the path of WarehouseResource repeated, so the class is dropped like any resource when the
+// VirtualThreadWarehouseResourceImpl replaces it
+@Path("/warehouse")
 @RequestScoped
+@UnlessBuildProperty(name = "warehouse.rest.virtual-threads", stringValue = "true", enableIfMissing = true)
 public class WarehouseResourceImpl implements WarehouseResource {
 
+    static final int MAX_PAGE_SIZE = 1000;
+
+    static final Set<String> FIELDS = Set.of("id", "businessUnitCode", "location", "capacity", "stock");
+
     @Inject
     private WarehouseRepository warehouseRepository;
     @Inject
+    ObjectMapper objectMapper;
+    @Inject
     CreateWarehouseUseCase createUseCase;
     @Inject
     ReplaceWarehouseUseCase replaceUseCase;
     @Inject
     ArchiveWarehouseUseCase archiveUseCase;
+    @Inject
+    LocationResolver locationResolver;
 
     @Override
-    public List<Warehouse> listAllWarehousesUnits() {
-        return warehouseRepository.getAll().stream().map(this::toWarehouseResponse).toList();
+    public StreamingOutput listAllWarehousesUnits(String location, Integer limit, String cursor, String fields) {
+        if (limit != null && (limit <= 0 || limit > MAX_PAGE_SIZE)) {
+            throw new WebApplicationException("limit must be between 1 and " + MAX_PAGE_SIZE, 400);
+        }
+        long afterId = parseCursor(cursor);
+        Set<String> selected = parseFields(fields, limit != null);
+        String storedLocation = storedLocation(location);
+
+        // the array is written while the rows are read, the listing is never held in memory
+        return output -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+                generator.writeStartArray();
+                try {
+                    warehouseRepository.forEachActive(
+                            storedLocation, afterId, limit == null ? Integer.MAX_VALUE : limit,
+                            snapshot -> writeWarehouse(generator, snapshot, selected));
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+                generator.writeEndArray();
+            }
+        };
     }
 
     @Override
     @Transactional
     public Warehouse createANewWarehouseUnit(@NotNull Warehouse data) {
         var domain = toDomain(data);
-        createUseCase.create(domain);
+        try {
+            createUseCase.create(domain);
+        } catch (IllegalArgumentException e) {
+            throw new WebApplicationException(e.getMessage(), 400);
+        } catch (IllegalStateException e) {
+            // the location is full, as for a replacement
+            throw new WebApplicationException(e.getMessage(), 422);
+        } catch (EntityExistsException e) {
+            // lost the race for the business unit code to a concurrent create
+            throw new WebApplicationException("Business unit already exists", 409);
+        }
         return data;
     }
     @Override
@@ -93,6 +145,21 @@ public class WarehouseResourceImpl implements WarehouseResource {
         return data;
     }
 
+    /**
+     * The identification warehouses are stored with, looked up like any location identifier,
+     * so the filter is case-insensitive. An unknown location is kept as given and matches nothing.
+     */
+    private String storedLocation(String location) {
+        if (location == null || location.isEmpty()) {
+            return location;
+        }
+        try {
+            return locationResolver.resolveByIdentifier(location).identification;
+        } catch (IllegalArgumentException e) {
+            return location;
+        }
+    }
+
     private Warehouse toWarehouseResponse(
             com.fulfilment.application.monolith.warehouses.domain.models.Warehouse warehouse) {
         var response = new Warehouse();
@@ -104,6 +171,70 @@ public class WarehouseResourceImpl implements WarehouseResource {
 
         return response;
     }
+    private static long parseCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0L;
+        }
+        try {
+            long afterId = Long.parseLong(cursor);
+            if (afterId >= 0) {
+                return afterId;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new WebApplicationException("Invalid cursor: " + cursor, 400);
+    }
+
+    /**
+     * @param paged whether the listing is limited, in which case the id is always selected
+     *     as it is the cursor of the next page
+     */
+    private static Set<String> parseFields(String fields, boolean paged) {
+        if (fields == null || fields.isBlank()) {
+            return FIELDS;
+        }
+        Set<String> selected = new HashSet<>();
+        if (paged) {
+            selected.add("id");
+        }
+        for (String field : fields.split(",")) {
+            String name = field.strip();
+            if (!FIELDS.contains(name)) {
+                throw new WebApplicationException("Unknown field: " + name, 400);
+            }
+            selected.add(name);
+        }
+        return selected;
+    }
+
+    /**
+     * Write the selected properties of a warehouse, named and typed as in the Warehouse schema.
+     */
+    static void writeWarehouse(JsonGenerator generator, WarehouseSnapshot snapshot, Set<String> selected) {
+        try {
+            generator.writeStartObject();
+            if (selected.contains("id")) {
+                generator.writeStringField("id", Long.toString(snapshot.id()));
+            }
+            if (selected.contains("businessUnitCode")) {
+                generator.writeStringField("businessUnitCode", snapshot.businessUnitCode());
+            }
+            if (selected.contains("location")) {
+                generator.writeStringField("location", snapshot.location());
+            }
+            if (selected.contains("capacity")) {
+                generator.writeNumberField("capacity", snapshot.capacity());
+            }
+            if (selected.contains("stock")) {
+                generator.writeNumberField("stock", snapshot.stock());
+            }
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     private com.fulfilment.application.monolith.warehouses.domain.models.Warehouse
     toDomain(Warehouse w) {
 
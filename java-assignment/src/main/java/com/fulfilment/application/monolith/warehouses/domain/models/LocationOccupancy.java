@@ -0,0 +1,17 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+/**
+ * Active warehouses at one location, as counted by the warehouse store.
+ */
+public class LocationOccupancy {
+
+  public long numberOfWarehouses;
+
+  // sum of the capacities of the active warehouses
+  public long totalCapacity;
+
+  public LocationOccupancy(long numberOfWarehouses, long totalCapacity) {
+    this.numberOfWarehouses = numberOfWarehouses;
+    this.totalCapacity = totalCapacity;
+  }
+}
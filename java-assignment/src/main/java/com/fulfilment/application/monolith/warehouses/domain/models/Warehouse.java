@@ -13,6 +13,9 @@ public class Warehouse {
   public LocalDateTime archivedAt;
   public Long id;
 
+  // version of the stored row this warehouse was read from
+  public Long version;
+
     public Warehouse() {
     // required for mapping
   }
@@ -0,0 +1,29 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+/**
+ * Immutable, read-only view of an active warehouse for listings, holding the fields of the
+ * listing response. Quantities are primitive, so a row costs one object plus its two strings.
+ */
+public record WarehouseSnapshot(
+        long id,
+        String businessUnitCode,
+        String location,
+        int capacity,
+        int stock) {
+
+  /**
+   * Used by the store's constructor query, which yields the column types.
+   */
+  public WarehouseSnapshot(
+          Long id,
+          String businessUnitCode,
+          String location,
+          Integer capacity,
+          Integer stock) {
+    this(id.longValue(),
+            businessUnitCode,
+            location,
+            capacity == null ? 0 : capacity,
+            stock == null ? 0 : stock);
+  }
+}
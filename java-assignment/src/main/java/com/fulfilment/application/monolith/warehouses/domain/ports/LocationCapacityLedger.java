@@ -0,0 +1,22 @@
+package com.fulfilment.application.monolith.warehouses.domain.ports;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationOccupancy;
+
+/**
+ * Running totals of the active warehouses per location, kept in step with every create,
+ * replace and archive so limits are checked without scanning the warehouses.
+ */
+public interface LocationCapacityLedger {
+
+  /**
+   * Lock the totals of a location until the current transaction ends and return them.
+   * Changes at the same location are serialised on this lock, so it must be taken before
+   * any warehouse at the location is created or archived.
+   */
+  LocationOccupancy lock(String location);
+
+  /**
+   * Adjust the totals of a location locked by {@link #lock}.
+   */
+  void adjust(String location, int warehouses, int capacity);
+}
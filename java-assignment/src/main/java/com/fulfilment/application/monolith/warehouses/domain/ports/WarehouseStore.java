@@ -1,19 +1,47 @@
 package com.fulfilment.application.monolith.warehouses.domain.ports;
 
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationOccupancy;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseSnapshot;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface WarehouseStore {
 
   List<Warehouse> getAll();
 
+  /**
+   * Pass the active warehouses with an id above {@code afterId} to {@code action} in id order,
+   * at most {@code limit} of them and only those at {@code location} unless it is null.
+   * Rows are handed over as they are read, nothing is collected.
+   */
+  void forEachActive(String location, long afterId, int limit, Consumer<WarehouseSnapshot> action);
+
+  /**
+   * Insert {@code warehouse} and flush it.
+   *
+   * @throws jakarta.persistence.EntityExistsException if an active warehouse with the same business
+   *     unit code was inserted concurrently
+   */
   void create(Warehouse warehouse);
 
   void update(Warehouse warehouse);
 
   void remove(Warehouse warehouse);
 
+  /**
+   * Store the archival of {@code current} and insert {@code replacement} in one flush.
+   *
+   * @throws jakarta.persistence.OptimisticLockException if {@code current} was changed since it was read
+   */
+  void replace(Warehouse current, Warehouse replacement);
+
   Warehouse findByBusinessUnitCode(String buCode);
 
   Warehouse findActiveById(Long id);
+
+  /**
+   * Count the active warehouses at a location and sum their capacity.
+   */
+  LocationOccupancy occupancyOf(String location);
 }
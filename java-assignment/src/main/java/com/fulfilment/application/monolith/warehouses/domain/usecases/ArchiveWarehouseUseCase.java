@@ -2,20 +2,30 @@ package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 import com.fulfilment.application.monolith.warehouses.domain.ports.ArchiveWarehouseOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationCapacityLedger;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import io.micrometer.core.annotation.Timed;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.transaction.Transactional;
 import jakarta.ws.rs.WebApplicationException;
 
 @ApplicationScoped
+@Timed("warehouse.usecase")
 public class ArchiveWarehouseUseCase implements ArchiveWarehouseOperation {
 
   private final WarehouseStore warehouseStore;
+  private final LocationCapacityLedger capacityLedger;
 
-  public ArchiveWarehouseUseCase(WarehouseStore warehouseStore) {
+  public ArchiveWarehouseUseCase(
+          WarehouseStore warehouseStore,
+          LocationCapacityLedger capacityLedger) {
     this.warehouseStore = warehouseStore;
+    this.capacityLedger = capacityLedger;
   }
 
   @Override
+  @Transactional
   public void archive(Warehouse warehouse) {
 
     Warehouse existing =
@@ -26,8 +36,16 @@ public class ArchiveWarehouseUseCase implements ArchiveWarehouseOperation {
       throw new WebApplicationException("Warehouse not found", 404);
     }
 
+    capacityLedger.lock(existing.location);
+
     existing.archive();   // Domain behavior
-    warehouseStore.update(existing);
+    try {
+      // a concurrent archive or replace fails the version check
+      warehouseStore.update(existing);
+    } catch (OptimisticLockException e) {
+      throw new WebApplicationException("Warehouse was changed concurrently", 409);
+    }
+    capacityLedger.adjust(existing.location, -1, -existing.capacity);
   }
 
 }
\ No newline at end of file
@@ -1,29 +1,38 @@
 package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationOccupancy;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 import com.fulfilment.application.monolith.warehouses.domain.ports.CreateWarehouseOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationCapacityLedger;
 import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import io.micrometer.core.annotation.Timed;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.transaction.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.Objects;
 
 @ApplicationScoped
+@Timed("warehouse.usecase")
 public class CreateWarehouseUseCase implements CreateWarehouseOperation {
 
   private final WarehouseStore warehouseStore;
   private final LocationResolver locationResolver;
+  private final LocationCapacityLedger capacityLedger;
 
   public CreateWarehouseUseCase(
           WarehouseStore warehouseStore,
-          LocationResolver locationResolver) {
+          LocationResolver locationResolver,
+          LocationCapacityLedger capacityLedger) {
     this.warehouseStore = warehouseStore;
     this.locationResolver = locationResolver;
+    this.capacityLedger = capacityLedger;
   }
 
   @Override
+  @Transactional
   public void create(Warehouse warehouse) {
     Objects.requireNonNull(warehouse.businessUnitCode,
             "Business Unit Code is required");
@@ -43,13 +52,11 @@ public class CreateWarehouseUseCase implements CreateWarehouseOperation {
       throw new IllegalArgumentException("Invalid location");
     }
 
-    //  max warehouses validation
-    long count =
-            warehouseStore.getAll().stream()
-                    .filter(w -> w.location.equals(location.identification))
-                    .count();
+    //  max warehouses validation, holding the location until commit
+    LocationOccupancy occupancy =
+            capacityLedger.lock(location.identification);
 
-    if (count >= location.maxNumberOfWarehouses) {
+    if (occupancy.numberOfWarehouses >= location.maxNumberOfWarehouses) {
       throw new IllegalStateException(
               "Maximum warehouses reached for location");
     }
@@ -60,13 +67,21 @@ public class CreateWarehouseUseCase implements CreateWarehouseOperation {
               "Capacity exceeds location limit");
     }
 
+    //  summed capacity validation
+    if (occupancy.totalCapacity + warehouse.capacity > location.maxCapacity) {
+      throw new IllegalStateException(
+              "Total capacity exceeds location limit");
+    }
+
     //  stock validation
     if (warehouse.stock > warehouse.capacity) {
       throw new IllegalArgumentException(
               "Stock exceeds capacity");
     }
 
+    warehouse.location = location.identification;
     warehouse.createdAt = LocalDateTime.now();
     warehouseStore.create(warehouse);
+    capacityLedger.adjust(location.identification, 1, warehouse.capacity);
   }
 }
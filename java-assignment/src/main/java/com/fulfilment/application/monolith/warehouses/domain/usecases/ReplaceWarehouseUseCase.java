@@ -1,19 +1,38 @@
 package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationOccupancy;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationCapacityLedger;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
 import com.fulfilment.application.monolith.warehouses.domain.ports.ReplaceWarehouseOperation;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import io.micrometer.core.annotation.Timed;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.OptimisticLockException;
 import jakarta.transaction.Transactional;
 import jakarta.ws.rs.WebApplicationException;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
 @ApplicationScoped
+@Timed("warehouse.usecase")
 public class ReplaceWarehouseUseCase implements ReplaceWarehouseOperation {
 
   private final WarehouseStore warehouseStore;
+  private final LocationResolver locationResolver;
+  private final LocationCapacityLedger capacityLedger;
 
-  public ReplaceWarehouseUseCase(WarehouseStore warehouseStore) {
+  public ReplaceWarehouseUseCase(
+          WarehouseStore warehouseStore,
+          LocationResolver locationResolver,
+          LocationCapacityLedger capacityLedger) {
     this.warehouseStore = warehouseStore;
+    this.locationResolver = locationResolver;
+    this.capacityLedger = capacityLedger;
   }
   @Transactional
   @Override
@@ -27,6 +46,10 @@ public class ReplaceWarehouseUseCase implements ReplaceWarehouseOperation {
       throw new IllegalArgumentException("Business unit code required");
     }
 
+    if (newWarehouse.capacity == null) {
+      throw new IllegalArgumentException("Capacity required");
+    }
+
     Warehouse existing =
             warehouseStore.findByBusinessUnitCode(
                     newWarehouse.businessUnitCode);
@@ -45,16 +68,48 @@ public class ReplaceWarehouseUseCase implements ReplaceWarehouseOperation {
                   "Stock must match existing warehouse", 422);
       }
 
-      if (newWarehouse.capacity != null
-              && existing.stock != null
+      if (existing.stock != null
               && newWarehouse.capacity < existing.stock) {
 
           throw new WebApplicationException(
                   "Capacity cannot accommodate stock", 422);
       }
-      existing.archive();
-      warehouseStore.update(existing);
-//    warehouseStore.update(newWarehouse);
-    warehouseStore.create(newWarehouse);
+
+    Location location = locationResolver.resolveByIdentifier(newWarehouse.location);
+    if (location == null) {
+      throw new IllegalArgumentException("Invalid location");
+    }
+    newWarehouse.location = location.identification;
+
+    // lock both locations in a fixed order, so concurrent replacements cannot deadlock
+    Map<String, LocationOccupancy> occupancies = new HashMap<>();
+    for (String identifier : new TreeSet<>(List.of(existing.location, location.identification))) {
+      occupancies.put(identifier, capacityLedger.lock(identifier));
+    }
+
+    // the replaced warehouse no longer counts once archived
+    LocationOccupancy target = occupancies.get(location.identification);
+    boolean sameLocation = existing.location.equals(location.identification);
+    long warehouses = target.numberOfWarehouses - (sameLocation ? 1 : 0);
+    long capacity = target.totalCapacity - (sameLocation ? existing.capacity : 0);
+
+    if (warehouses >= location.maxNumberOfWarehouses) {
+      throw new WebApplicationException(
+              "Maximum warehouses reached for location", 422);
+    }
+    if (capacity + newWarehouse.capacity > location.maxCapacity) {
+      throw new WebApplicationException(
+              "Total capacity exceeds location limit", 422);
+    }
+
+    // a concurrent archive or replace of the same row fails the version check of this one
+    existing.archive();
+    try {
+      warehouseStore.replace(existing, newWarehouse);
+    } catch (OptimisticLockException e) {
+      throw new WebApplicationException("Warehouse was replaced concurrently", 409);
+    }
+    capacityLedger.adjust(existing.location, -1, -existing.capacity);
+    capacityLedger.adjust(location.identification, 1, newWarehouse.capacity);
   }
 }
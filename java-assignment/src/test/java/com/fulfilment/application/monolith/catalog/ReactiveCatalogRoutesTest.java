@@ -0,0 +1,111 @@
+package com.fulfilment.application.monolith.catalog;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fulfilment.application.monolith.products.ProductResource;
+import com.fulfilment.application.monolith.stores.StoreResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import io.quarkus.test.junit.mockito.InjectSpy;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The reactive catalog reads against the blocking resources they stand in for. Needs PostgreSQL,
+ * see {@link ReactiveCatalogTestProfile}: {@code mvn test -Ppostgres}.
+ */
+@QuarkusTest
+@TestProfile(ReactiveCatalogTestProfile.class)
+@Tag("postgres")
+class ReactiveCatalogRoutesTest {
+
+    @InjectSpy
+    StoreResource storeResource;
+
+    @InjectSpy
+    ProductResource productResource;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    private static String uniqueName(String prefix) {
+        return prefix + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    private static long create(String path, String body) {
+        return given()
+                .contentType(ContentType.JSON)
+                .body(body)
+                .when().post(path)
+                .then()
+                .statusCode(201)
+                .extract().jsonPath().getLong("id");
+    }
+
+    private static String get(String path) {
+        return given()
+                .when().get(path)
+                .then()
+                .statusCode(200)
+                .extract().asString();
+    }
+
+    @Test
+    void shouldServeAStoreAsTheResourceDoes() throws Exception {
+        long id = create("/store", "{\"name\":\"" + uniqueName("RC") + "\",\"quantityProductsInStock\":7}");
+
+        String body = get("/store/" + id);
+
+        verify(storeResource, never()).getSingle(any());
+        assertEquals(objectMapper.writeValueAsString(storeResource.getSingle(id)), body);
+    }
+
+    @Test
+    void shouldServeAProductAsTheResourceDoes() throws Exception {
+        long id = create("/product", "{\"name\":\"" + uniqueName("RC")
+                + "\",\"description\":\"reactive\",\"price\":12.50,\"stock\":3}");
+
+        String body = get("/product/" + id);
+
+        verify(productResource, never()).getSingle(any());
+        assertEquals(objectMapper.writeValueAsString(productResource.getSingle(id)), body);
+    }
+
+    @Test
+    void shouldPassUnknownIdsToTheResource() {
+        given().when().get("/store/" + Long.MAX_VALUE).then().statusCode(404);
+        given().when().get("/product/" + Long.MAX_VALUE).then().statusCode(404);
+        given().when().get("/store/not-a-number").then().statusCode(404);
+
+        verify(storeResource).getSingle(Long.MAX_VALUE);
+        verify(productResource).getSingle(Long.MAX_VALUE);
+    }
+
+    @Test
+    void shouldListInTheOrderOfTheResource() throws Exception {
+        String later = uniqueName("RC-B");
+        String earlier = uniqueName("RC-A");
+        create("/store", "{\"name\":\"" + later + "\",\"quantityProductsInStock\":1}");
+        create("/store", "{\"name\":\"" + earlier + "\",\"quantityProductsInStock\":2}");
+        create("/product", "{\"name\":\"" + uniqueName("RC-B") + "\",\"stock\":1}");
+        create("/product", "{\"name\":\"" + uniqueName("RC-A") + "\",\"stock\":2}");
+
+        String stores = get("/store");
+        String products = get("/product");
+
+        verify(storeResource, never()).get();
+        verify(productResource, never()).get();
+        assertEquals(objectMapper.writeValueAsString(storeResource.get()), stores);
+        assertEquals(objectMapper.writeValueAsString(productResource.get()), products);
+        List<String> names = given().when().get("/store").then().extract().jsonPath().getList("name");
+        assertTrue(names.indexOf(earlier) < names.indexOf(later));
+    }
+}
@@ -0,0 +1,142 @@
+package com.fulfilment.application.monolith.catalog;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fulfilment.application.monolith.products.Product;
+import com.fulfilment.application.monolith.stores.Store;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.vertx.ext.web.Router;
+import io.vertx.mutiny.sqlclient.Row;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.metamodel.Attribute;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The row mappers and SELECTs of {@link ReactiveCatalogRoutes} on H2, without a reactive client:
+ * the SELECTs are run natively, their rows are mapped by {@link ReactiveCatalogRoutes#toStore} and
+ * {@link ReactiveCatalogRoutes#toProduct}, and the result is compared with what the blocking
+ * resources answer. The routes themselves run against PostgreSQL in {@link ReactiveCatalogRoutesTest}.
+ */
+@QuarkusTest
+class ReactiveCatalogRowMappingTest {
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    private static String uniqueName(String prefix) {
+        return prefix + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    private Object[] select(String columns, long id) {
+        return QuarkusTransaction.requiringNew().call(() -> (Object[]) entityManager
+                .createNativeQuery(columns + " WHERE id = ?1")
+                .setParameter(1, id)
+                .getSingleResult());
+    }
+
+    /**
+     * A reactive client row over the values of a native query row, read by position.
+     */
+    private static Row row(Object[] values) {
+        Row row = mock(Row.class);
+        when(row.getLong(anyInt())).thenAnswer(call -> ((Number) values[call.<Integer>getArgument(0)]).longValue());
+        when(row.getInteger(anyInt())).thenAnswer(call -> ((Number) values[call.<Integer>getArgument(0)]).intValue());
+        when(row.getString(anyInt())).thenAnswer(call -> (String) values[call.<Integer>getArgument(0)]);
+        when(row.getBigDecimal(anyInt())).thenAnswer(call -> (BigDecimal) values[call.<Integer>getArgument(0)]);
+        return row;
+    }
+
+    private Set<String> selectedColumns(String select) {
+        String columns = select.substring("SELECT ".length(), select.indexOf(" FROM "));
+        return Arrays.stream(columns.split(",")).map(String::strip).collect(Collectors.toSet());
+    }
+
+    private Set<String> mappedAttributes(Class<?> entity) {
+        return entityManager.getMetamodel().entity(entity).getAttributes().stream()
+                .map(Attribute::getName)
+                .collect(Collectors.toSet());
+    }
+
+    private static String get(String path) {
+        return given().when().get(path).then().statusCode(200).extract().asString();
+    }
+
+    @Test
+    void shouldSelectEveryMappedColumn() {
+        assertEquals(mappedAttributes(Store.class), selectedColumns(ReactiveCatalogRoutes.STORE_COLUMNS));
+        assertEquals(mappedAttributes(Product.class), selectedColumns(ReactiveCatalogRoutes.PRODUCT_COLUMNS));
+    }
+
+    @Test
+    void shouldMapAStoreRowAsTheResourceAnswers() throws Exception {
+        Store store = QuarkusTransaction.requiringNew().call(() -> {
+            Store created = new Store(uniqueName("RM"));
+            created.quantityProductsInStock = 7;
+            created.persist();
+            return created;
+        });
+
+        Store mapped = ReactiveCatalogRoutes.toStore(row(select(ReactiveCatalogRoutes.STORE_COLUMNS, store.id)));
+
+        assertEquals(objectMapper.readTree(get("/store/" + store.id)),
+                objectMapper.readTree(objectMapper.writeValueAsString(mapped)));
+    }
+
+    @Test
+    void shouldMapAProductRowAsTheResourceAnswers() throws Exception {
+        Product product = QuarkusTransaction.requiringNew().call(() -> {
+            Product created = new Product(uniqueName("RM"));
+            created.description = "mapped";
+            created.price = new BigDecimal("12.50");
+            created.stock = 3;
+            created.persist();
+            return created;
+        });
+
+        Product mapped = ReactiveCatalogRoutes.toProduct(row(select(ReactiveCatalogRoutes.PRODUCT_COLUMNS, product.id)));
+
+        assertEquals(objectMapper.readTree(get("/product/" + product.id)),
+                objectMapper.readTree(objectMapper.writeValueAsString(mapped)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldFailFastWhenReactiveReadsHaveNoPool() {
+        ReactiveCatalogRoutes routes = new ReactiveCatalogRoutes();
+        routes.catalogReads = ReactiveCatalogRoutes.REACTIVE;
+        routes.pool = mock(Instance.class);
+        when(routes.pool.isResolvable()).thenReturn(false);
+        Router router = mock(Router.class);
+
+        assertThrows(IllegalStateException.class, () -> routes.registerRoutes(router));
+        verifyNoInteractions(router);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldLeaveTheRouterAloneWithBlockingReads() {
+        ReactiveCatalogRoutes routes = new ReactiveCatalogRoutes();
+        routes.catalogReads = "blocking";
+        routes.pool = mock(Instance.class);
+        Router router = mock(Router.class);
+
+        routes.registerRoutes(router);
+
+        verifyNoInteractions(router, routes.pool);
+    }
+}
@@ -0,0 +1,27 @@
+package com.fulfilment.application.monolith.catalog;
+
+import io.quarkus.test.junit.QuarkusTestProfile;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The application with {@code catalog.reads=reactive} against the PostgreSQL server of the
+ * README, or the host:port/database given as {@code -Dcatalog.postgres}; its tables are dropped
+ * and recreated on startup. The reactive client has no H2 driver, so this needs a real server.
+ */
+public class ReactiveCatalogTestProfile implements QuarkusTestProfile {
+
+    static final String POSTGRES = System.getProperty("catalog.postgres", "localhost:15432/quarkus_test");
+
+    @Override
+    public Map<String, String> getConfigOverrides() {
+        Map<String, String> config = new HashMap<>();
+        config.put("quarkus.datasource.db-kind", "postgresql");
+        config.put("quarkus.datasource.jdbc.url", "jdbc:postgresql://" + POSTGRES);
+        config.put("quarkus.datasource.reactive.url", "postgresql://" + POSTGRES);
+        config.put("quarkus.datasource.username", "quarkus_test");
+        config.put("quarkus.datasource.password", "quarkus_test");
+        config.put("catalog.reads", ReactiveCatalogRoutes.REACTIVE);
+        return config;
+    }
+}
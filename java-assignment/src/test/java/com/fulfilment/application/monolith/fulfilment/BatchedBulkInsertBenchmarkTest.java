@@ -0,0 +1,23 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+
+@QuarkusTest
+@TestProfile(BulkInsertProfiles.Batched.class)
+class BatchedBulkInsertBenchmarkTest extends BulkInsertBenchmark {
+
+    @Override
+    String mode() {
+        return "batched";
+    }
+
+    @Override
+    void verifyStatements(long preparedStatements, int rows) {
+        // one insert statement and one sequence call per 50 rows of each entity
+        assertTrue(preparedStatements < rows / 10,
+                preparedStatements + " statements prepared for " + rows + " rows");
+    }
+}
@@ -0,0 +1,135 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+import com.fulfilment.application.monolith.products.Product;
+import com.fulfilment.application.monolith.stores.Store;
+import com.fulfilment.application.monolith.warehouses.adapters.database.DbWarehouse;
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Measures rows/second of bulk product, warehouse and association writes.
+ * Subclasses run it under a batched and an unbatched persistence profile; the results are
+ * logged and appended to target/benchmarks/bulk-insert.csv.
+ * <p>
+ * Run with {@code mvn test -Pbenchmark}. Add {@code -Dbenchmark.database=postgresql}
+ * to run H2 in PostgreSQL compatibility mode.
+ */
+@Tag("benchmark")
+abstract class BulkInsertBenchmark {
+
+    private static final Logger LOGGER = Logger.getLogger(BulkInsertBenchmark.class.getName());
+
+    static final int ROWS_PER_TYPE = 2_000;
+    private static final int WARMUP_ROUNDS = 2;
+    private static final int MEASURED_ROUNDS = 5;
+
+    private static final Path RESULTS = Path.of("target", "benchmarks", "bulk-insert.csv");
+
+    @Inject
+    FulfilmentRepository fulfilmentRepository;
+
+    @Inject
+    FulfilmentConstraintIndex constraintIndex;
+
+    @Inject
+    WarehouseRepository warehouseRepository;
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    abstract String mode();
+
+    /**
+     * Check the statements prepared by one measured round of {@code rows} inserts.
+     */
+    abstract void verifyStatements(long preparedStatements, int rows);
+
+    @Test
+    void measureBulkInsert() throws IOException {
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            insertRound();
+        }
+
+        Statistics statistics = sessionFactory.getStatistics();
+        statistics.clear();
+        long elapsed = 0;
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            elapsed += insertRound();
+        }
+
+        int rows = 3 * ROWS_PER_TYPE * MEASURED_ROUNDS;
+        long rowsPerSecond = rows * 1_000_000_000L / elapsed;
+        long preparedStatements = statistics.getPrepareStatementCount();
+        LOGGER.infof("Bulk insert %s on %s: %d rows/s, %d statements prepared for %d rows",
+                mode(), BulkInsertProfiles.database(), rowsPerSecond, preparedStatements, rows);
+        record(rowsPerSecond, preparedStatements, rows);
+
+        verifyStatements(preparedStatements / MEASURED_ROUNDS, rows / MEASURED_ROUNDS);
+    }
+
+    /**
+     * Persist one round of products, warehouses and associations in a single transaction.
+     *
+     * @return the elapsed nanoseconds, commit included
+     */
+    private long insertRound() {
+        long start = System.nanoTime();
+        QuarkusTransaction.requiringNew().run(() -> {
+            Store store = new Store();
+            store.persist();
+            Map<Integer, Product> products = new HashMap<>();
+
+            for (int i = 0; i < ROWS_PER_TYPE; i++) {
+                Product product = new Product();
+                product.stock = i;
+                product.persist();
+                products.put(i, product);
+
+                DbWarehouse warehouse = new DbWarehouse();
+                warehouse.businessUnitCode = "BENCH-" + i;
+                warehouse.location = "AMSTERDAM-001";
+                warehouse.capacity = 100;
+                warehouse.stock = 0;
+                warehouse.createdAt = LocalDateTime.now();
+                warehouse.archivedAt = LocalDateTime.now();
+                warehouseRepository.persist(warehouse);
+            }
+            for (int i = 0; i < ROWS_PER_TYPE; i++) {
+                ProductWarehouseStoreAssociation association =
+                        new ProductWarehouseStoreAssociation(products.get(i), (long) i + 1, store);
+                fulfilmentRepository.persist(association);
+                // as FulfilmentService does, so the constraint index stays in step with the table
+                constraintIndex.recordCreated(association);
+                if ((i + 1) % FulfilmentService.BATCH_FLUSH_SIZE == 0) {
+                    entityManager.flush();
+                }
+            }
+        });
+        return System.nanoTime() - start;
+    }
+
+    private void record(long rowsPerSecond, long preparedStatements, int rows) throws IOException {
+        Files.createDirectories(RESULTS.getParent());
+        String line = String.join(",", LocalDateTime.now().toString(), BulkInsertProfiles.database(), mode(),
+                String.valueOf(rows), String.valueOf(rowsPerSecond), String.valueOf(preparedStatements));
+        Files.writeString(RESULTS, line + System.lineSeparator(),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+}
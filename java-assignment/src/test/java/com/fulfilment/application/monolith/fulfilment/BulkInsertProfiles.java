@@ -0,0 +1,56 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+import io.quarkus.test.junit.QuarkusTestProfile;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Persistence profiles compared by {@link BulkInsertBenchmark}.
+ */
+final class BulkInsertProfiles {
+
+    private BulkInsertProfiles() {}
+
+    /**
+     * Database selected with -Dbenchmark.database, either h2 or postgresql (H2 in PostgreSQL mode).
+     */
+    static String database() {
+        return System.getProperty("benchmark.database", "h2");
+    }
+
+    private static Map<String, String> common() {
+        Map<String, String> config = new HashMap<>();
+        config.put("quarkus.hibernate-orm.log.sql", "false");
+        config.put("quarkus.hibernate-orm.statistics", "true");
+        config.put("quarkus.datasource.jdbc.url", "postgresql".equals(database())
+                ? "jdbc:h2:mem:benchmark;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH"
+                : "jdbc:h2:mem:benchmark");
+        return config;
+    }
+
+    /**
+     * The application settings: pooled-lo ids and ordered JDBC batches.
+     */
+    public static class Batched implements QuarkusTestProfile {
+
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return common();
+        }
+    }
+
+    /**
+     * One sequence call and one insert statement per row.
+     */
+    public static class Unbatched implements QuarkusTestProfile {
+
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            Map<String, String> config = common();
+            config.put("quarkus.hibernate-orm.mapping.id.optimizer.default", "none");
+            config.put("quarkus.hibernate-orm.jdbc.statement-batch-size", "1");
+            config.put("quarkus.hibernate-orm.unsupported-properties.\"hibernate.order_inserts\"", "false");
+            return config;
+        }
+    }
+}
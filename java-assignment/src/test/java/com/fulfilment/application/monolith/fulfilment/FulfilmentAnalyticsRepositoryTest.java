@@ -1,10 +1,16 @@
 package com.fulfilment.application.monolith.fulfilment;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.fulfilment.application.monolith.products.Product;
+import com.fulfilment.application.monolith.stores.Store;
+import io.quarkus.test.TestTransaction;
 import io.quarkus.test.junit.QuarkusTest;
 import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
 import org.junit.jupiter.api.Test;
 
 @QuarkusTest
@@ -13,6 +19,103 @@ class FulfilmentAnalyticsRepositoryTest {
     @Inject
     FulfilmentAnalyticsRepository repository;
 
+    @Inject
+    FulfilmentService fulfilmentService;
+
+    @Inject
+    FulfilmentRepository fulfilmentRepository;
+
+    @Inject
+    FulfilmentConstraintIndex constraintIndex;
+
+    @Transactional
+    Store createStore() {
+        Store store = new Store();
+        store.persist();
+        return store;
+    }
+
+    @Transactional
+    Product createProduct() {
+        Product product = new Product();
+        product.persist();
+        return product;
+    }
+
+    @Transactional
+    ProductWarehouseStoreAssociation createAssociation(Product product, Long warehouseId, Store store) {
+        return fulfilmentService.createAssociation(product, warehouseId, store);
+    }
+
+    @Transactional
+    ProductWarehouseStoreAssociation persistDirectly(Product product, Long warehouseId, Store store) {
+        ProductWarehouseStoreAssociation association =
+                new ProductWarehouseStoreAssociation(product, warehouseId, store);
+        fulfilmentRepository.persist(association);
+        return association;
+    }
+
+    @Transactional
+    long countAssociationsForStoreInTransaction(Long storeId) {
+        return repository.countAssociationsForStore(storeId);
+    }
+
+    @Transactional
+    void removeAssociation(ProductWarehouseStoreAssociation association) {
+        fulfilmentService.removeAssociation(association);
+    }
+
+    @Test
+    void testCountsFollowCommittedChanges() {
+        Store store = createStore();
+        Product product = createProduct();
+        long total = repository.count();
+
+        ProductWarehouseStoreAssociation first = createAssociation(product, 8001L, store);
+        createAssociation(product, 8002L, store);
+
+        assertEquals(2, repository.countAssociationsForStore(store.id));
+        assertEquals(2, repository.countAssociationsForProduct(product.id));
+
+        removeAssociation(first);
+
+        assertEquals(1, repository.countAssociationsForStore(store.id));
+        assertEquals(1, repository.countAssociationsForProduct(product.id));
+        assertEquals(total + 1, repository.count());
+    }
+
+    @Test
+    @TestTransaction
+    void testCountsSeeOwnUncommittedRows() {
+        Store store = new Store();
+        store.persist();
+        Product product = new Product();
+        product.persist();
+
+        fulfilmentService.createAssociation(product, 8011L, store);
+        fulfilmentService.createAssociation(product, 8012L, store);
+
+        assertEquals(2, repository.countAssociationsForStore(store.id));
+        assertEquals(2, repository.countAssociationsForProduct(product.id));
+    }
+
+    @Test
+    void testCountersMissRowsWrittenPastTheService() {
+        Store store = createStore();
+        Product product = createProduct();
+        ProductWarehouseStoreAssociation association = persistDirectly(product, 8021L, store);
+
+        try {
+            // the counters were never told, a transaction counts the table
+            assertEquals(0, repository.countAssociationsForStore(store.id));
+            assertEquals(1, countAssociationsForStoreInTransaction(store.id));
+            assertFalse(constraintIndex.matchesDatabase());
+        } finally {
+            constraintIndex.recordCreated(association);
+        }
+        assertEquals(1, repository.countAssociationsForStore(store.id));
+    }
+
     @Test
     void testCountAssociationsForStore() {
 
@@ -0,0 +1,141 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fulfilment.application.monolith.products.Product;
+import com.fulfilment.application.monolith.stores.Store;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Fires conflicting creates at POST /fulfillment from many threads and checks that no limit is breached.
+ */
+@QuarkusTest
+class FulfilmentConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    @Inject
+    FulfilmentRepository fulfilmentRepository;
+
+    @Transactional
+    Store createStore() {
+        Store store = new Store();
+        store.persist();
+        return store;
+    }
+
+    @Transactional
+    Product createProduct() {
+        Product product = new Product();
+        product.persist();
+        return product;
+    }
+
+    @Transactional
+    List<Object[]> associationKeys(String query, Long id) {
+        return fulfilmentRepository.getEntityManager()
+                .createQuery("SELECT a.product.id, a.warehouseId, a.store.id " +
+                        "FROM ProductWarehouseStoreAssociation a WHERE " + query, Object[].class)
+                .setParameter(1, id)
+                .getResultList();
+    }
+
+    @Test
+    void shouldNotExceedWarehouseLimitsForOneStore() throws Exception {
+        Store store = createStore();
+        List<Long> products = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            products.add(createProduct().id);
+        }
+        long firstWarehouse = randomWarehouseBase();
+
+        List<Callable<Integer>> requests = new ArrayList<>();
+        for (Long productId : products) {
+            for (long warehouse = firstWarehouse; warehouse < firstWarehouse + 6; warehouse++) {
+                requests.add(post(productId, warehouse, store.id));
+            }
+        }
+
+        List<Integer> statuses = runConcurrently(requests);
+
+        List<Object[]> rows = associationKeys("a.store.id = ?1", store.id);
+        assertEquals(statuses.stream().filter(status -> status == 200).count(), rows.size());
+        assertEquals(3, rows.stream().map(row -> row[1]).distinct().count());
+        for (Long productId : products) {
+            long warehousesForProduct = rows.stream().filter(row -> productId.equals(row[0])).count();
+            assertTrue(warehousesForProduct <= 2, "product " + productId + " has " + warehousesForProduct);
+        }
+        assertTrue(statuses.stream().allMatch(status -> status == 200 || status == 422),
+                "unexpected statuses " + statuses);
+    }
+
+    @Test
+    void shouldNotExceedProductTypesForOneWarehouse() throws Exception {
+        long warehouse = randomWarehouseBase();
+
+        List<Callable<Integer>> requests = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            requests.add(post(createProduct().id, warehouse, createStore().id));
+        }
+
+        List<Integer> statuses = runConcurrently(requests);
+
+        List<Object[]> rows = associationKeys("a.warehouseId = ?1", warehouse);
+        assertEquals(5, rows.size());
+        assertEquals(5, statuses.stream().filter(status -> status == 200).count());
+        assertEquals(7, statuses.stream().filter(status -> status == 422).count());
+    }
+
+    private Callable<Integer> post(Long productId, Long warehouseId, Long storeId) {
+        FulfilmentAssociationRequest request = new FulfilmentAssociationRequest(productId, warehouseId, storeId);
+        return () -> given()
+                .contentType(ContentType.JSON)
+                .body(request)
+                .when()
+                .post("/fulfillment")
+                .then()
+                .extract()
+                .statusCode();
+    }
+
+    private List<Integer> runConcurrently(List<Callable<Integer>> requests) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (Callable<Integer> request : requests) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return request.call();
+                }));
+            }
+            start.countDown();
+
+            List<Integer> statuses = new ArrayList<>();
+            for (Future<Integer> future : futures) {
+                statuses.add(future.get());
+            }
+            return statuses;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private long randomWarehouseBase() {
+        // keep clear of the small warehouse ids used by the other tests
+        return ThreadLocalRandom.current().nextLong(1_000_000, 1_000_000_000);
+    }
+}
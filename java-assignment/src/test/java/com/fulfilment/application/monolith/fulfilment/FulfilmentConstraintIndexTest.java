@@ -0,0 +1,296 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+import com.fulfilment.application.monolith.products.Product;
+import com.fulfilment.application.monolith.stores.Store;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import jakarta.ws.rs.WebApplicationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FulfilmentConstraintIndexTest {
+
+    @Mock
+    FulfilmentRepository repository;
+
+    @Mock
+    TransactionSynchronizationRegistry txRegistry;
+
+    @InjectMocks
+    FulfilmentConstraintIndex index;
+
+    @BeforeEach
+    void setup() {
+        index.add(1L, 10L, 100L);
+        index.add(1L, 11L, 100L);
+        index.add(2L, 10L, 100L);
+        index.add(2L, 10L, 200L);
+    }
+
+    @Test
+    void shouldEvaluateFromMemory() {
+        FulfilmentConstraintVerdict verdict = index.evaluate(1L, 10L, 100L);
+
+        assertTrue(verdict.duplicate);
+        assertEquals(2, verdict.warehousesForProductInStore);
+        assertEquals(2, verdict.warehousesForStore);
+        assertEquals(2, verdict.productTypesInWarehouse);
+    }
+
+    @Test
+    void shouldEvaluateUnknownKeysAsEmpty() {
+        FulfilmentConstraintVerdict verdict = index.evaluate(9L, 99L, 999L);
+
+        assertFalse(verdict.duplicate);
+        assertEquals(0, verdict.warehousesForProductInStore);
+        assertEquals(0, verdict.warehousesForStore);
+        assertEquals(0, verdict.productTypesInWarehouse);
+    }
+
+    @Test
+    void shouldKeepSharedWarehouseUntilLastRowRemoved() {
+        index.remove(1L, 10L, 100L);
+
+        FulfilmentConstraintVerdict verdict = index.evaluate(1L, 10L, 100L);
+        assertFalse(verdict.duplicate);
+        assertEquals(1, verdict.warehousesForProductInStore);
+        // product 2 still links warehouse 10 to store 100
+        assertEquals(2, verdict.warehousesForStore);
+        assertEquals(1, verdict.productTypesInWarehouse);
+    }
+
+    @Test
+    void shouldIgnoreRemovalOfUnknownRow() {
+        index.remove(1L, 12L, 100L);
+
+        assertEquals(2, index.evaluate(3L, 12L, 100L).warehousesForStore);
+    }
+
+    @Test
+    void shouldDropAssociationsOfDeletedStore() {
+        when(txRegistry.getTransactionStatus()).thenReturn(Status.STATUS_NO_TRANSACTION);
+
+        index.recordStoreDeleted(100L);
+
+        assertEquals(0, index.evaluate(1L, 10L, 100L).warehousesForStore);
+        // warehouse 10 is still used by store 200
+        assertEquals(1, index.evaluate(1L, 10L, 200L).productTypesInWarehouse);
+    }
+
+    @Test
+    void shouldDropAssociationsOfDeletedProduct() {
+        when(txRegistry.getTransactionStatus()).thenReturn(Status.STATUS_NO_TRANSACTION);
+
+        index.recordProductDeleted(2L);
+
+        assertEquals(2, index.evaluate(1L, 10L, 100L).warehousesForStore);
+        assertEquals(0, index.evaluate(3L, 10L, 200L).warehousesForStore);
+        assertEquals(1, index.evaluate(3L, 10L, 100L).productTypesInWarehouse);
+    }
+
+    @Test
+    void shouldCountRows() {
+        assertEquals(3, index.countAssociationsForStore(100L));
+        assertEquals(1, index.countAssociationsForStore(200L));
+        assertEquals(0, index.countAssociationsForStore(300L));
+        assertEquals(2, index.countAssociationsForProduct(1L));
+        assertEquals(4, index.countAssociations());
+        assertEquals(2, index.countAssociatedProducts());
+    }
+
+    @Test
+    void shouldUpdateCountsOnRemoveAndIgnoreRepeatedAdd() {
+        index.add(1L, 10L, 100L);
+        index.remove(1L, 10L, 100L);
+        index.remove(1L, 11L, 100L);
+
+        assertEquals(1, index.countAssociationsForStore(100L));
+        assertEquals(0, index.countAssociationsForProduct(1L));
+        assertEquals(2, index.countAssociations());
+        assertEquals(1, index.countAssociatedProducts());
+    }
+
+    @Test
+    void shouldApplyCreateOnlyAfterCommit() {
+        when(txRegistry.getTransactionStatus()).thenReturn(Status.STATUS_ACTIVE);
+
+        index.recordCreated(association(3L, 12L, 300L));
+
+        assertEquals(0, index.evaluate(3L, 12L, 300L).warehousesForStore);
+
+        ArgumentCaptor<Synchronization> synchronization = ArgumentCaptor.forClass(Synchronization.class);
+        verify(txRegistry).registerInterposedSynchronization(synchronization.capture());
+        synchronization.getValue().afterCompletion(Status.STATUS_COMMITTED);
+
+        assertTrue(index.evaluate(3L, 12L, 300L).duplicate);
+    }
+
+    @Test
+    void shouldDiscardCreateOnRollback() {
+        when(txRegistry.getTransactionStatus()).thenReturn(Status.STATUS_ACTIVE);
+
+        index.recordCreated(association(3L, 12L, 300L));
+
+        ArgumentCaptor<Synchronization> synchronization = ArgumentCaptor.forClass(Synchronization.class);
+        verify(txRegistry).registerInterposedSynchronization(synchronization.capture());
+        synchronization.getValue().afterCompletion(Status.STATUS_ROLLEDBACK);
+
+        assertFalse(index.evaluate(3L, 12L, 300L).duplicate);
+    }
+
+    @Test
+    void shouldApplyRemoveImmediatelyWithoutTransaction() {
+        when(txRegistry.getTransactionStatus()).thenReturn(Status.STATUS_NO_TRANSACTION);
+
+        index.recordRemoved(association(2L, 10L, 200L));
+
+        assertEquals(0, index.evaluate(2L, 10L, 200L).warehousesForStore);
+    }
+
+    @Test
+    void shouldEvaluateStagedBatchAgainstCommittedAndStagedRows() {
+        FulfilmentConstraintIndex.Batch batch = index.stage();
+
+        // warehouse 10 is already committed for store 100, so it is not a new store warehouse
+        batch.add(3L, 10L, 100L);
+        batch.add(3L, 12L, 100L);
+
+        FulfilmentConstraintVerdict verdict = batch.evaluate(3L, 12L, 100L);
+        assertTrue(verdict.duplicate);
+        assertEquals(2, verdict.warehousesForProductInStore);
+        assertEquals(3, verdict.warehousesForStore);
+        assertEquals(1, verdict.productTypesInWarehouse);
+
+        assertEquals(3, batch.evaluate(1L, 10L, 100L).productTypesInWarehouse);
+        // staging does not touch the committed index
+        assertFalse(index.evaluate(3L, 12L, 100L).duplicate);
+    }
+
+    @Test
+    void shouldRequireTransactionForLocks() {
+        when(txRegistry.getTransactionStatus()).thenReturn(Status.STATUS_NO_TRANSACTION);
+
+        assertThrows(IllegalStateException.class,
+                () -> index.lockForTransaction(List.of(100L), List.of(10L)));
+    }
+
+    @Test
+    void shouldReleaseLocksAfterIndexUpdate() {
+        Map<Object, Object> resources = new HashMap<>();
+        when(txRegistry.getTransactionStatus()).thenReturn(Status.STATUS_ACTIVE);
+        when(txRegistry.getResource(any())).thenAnswer(invocation -> resources.get(invocation.getArgument(0)));
+        doAnswer(invocation -> resources.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(txRegistry).putResource(any(), any());
+
+        index.lockForTransaction(List.of(300L), List.of(12L));
+        index.recordCreated(association(3L, 12L, 300L));
+
+        // a single synchronization per transaction covers the index update and the locks
+        ArgumentCaptor<Synchronization> synchronization = ArgumentCaptor.forClass(Synchronization.class);
+        verify(txRegistry).registerInterposedSynchronization(synchronization.capture());
+        synchronization.getValue().afterCompletion(Status.STATUS_COMMITTED);
+
+        assertTrue(index.evaluate(3L, 12L, 300L).duplicate);
+
+        // the stripes are free again for the next transaction
+        resources.clear();
+        assertDoesNotThrow(() -> index.lockForTransaction(List.of(300L), List.of(12L)));
+    }
+
+    @Test
+    void shouldNotWaitForStripesHeldByTheSameTransaction() {
+        Map<Object, Object> resources = new HashMap<>();
+        when(txRegistry.getTransactionStatus()).thenReturn(Status.STATUS_ACTIVE);
+        when(txRegistry.getResource(any())).thenAnswer(invocation -> resources.get(invocation.getArgument(0)));
+        doAnswer(invocation -> resources.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(txRegistry).putResource(any(), any());
+
+        // a batch create followed by a single create on overlapping keys
+        index.lockForTransaction(List.of(300L, 400L), List.of(12L));
+        assertTimeoutPreemptively(Duration.ofSeconds(2),
+                () -> index.lockForTransaction(List.of(300L), List.of(12L, 13L)));
+
+        ArgumentCaptor<Synchronization> synchronization = ArgumentCaptor.forClass(Synchronization.class);
+        verify(txRegistry).registerInterposedSynchronization(synchronization.capture());
+        synchronization.getValue().afterCompletion(Status.STATUS_ROLLEDBACK);
+
+        // every stripe is released once, so the next transaction gets all of them
+        resources.clear();
+        assertTimeoutPreemptively(Duration.ofSeconds(2),
+                () -> index.lockForTransaction(List.of(300L, 400L), List.of(12L, 13L)));
+    }
+
+    @Test
+    void shouldNotDeadlockWhenTransactionsLockInOppositeOrdersAcrossCalls() throws Exception {
+        ThreadLocal<Map<Object, Object>> resources = ThreadLocal.withInitial(HashMap::new);
+        ThreadLocal<Synchronization> registered = new ThreadLocal<>();
+        when(txRegistry.getTransactionStatus()).thenReturn(Status.STATUS_ACTIVE);
+        when(txRegistry.getResource(any())).thenAnswer(invocation -> resources.get().get(invocation.getArgument(0)));
+        doAnswer(invocation -> resources.get().put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(txRegistry).putResource(any(), any());
+        doAnswer(invocation -> {
+            registered.set(invocation.getArgument(0));
+            return null;
+        }).when(txRegistry).registerInterposedSynchronization(any());
+
+        // each transaction locks one store, waits for the other to do the same, then locks the other store
+        CyclicBarrier bothHoldOneStore = new CyclicBarrier(2);
+        Callable<Integer> first = () -> transaction(registered, List.of(1L), List.of(2L), bothHoldOneStore);
+        Callable<Integer> second = () -> transaction(registered, List.of(2L), List.of(1L), bothHoldOneStore);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Integer> statuses = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+                Future<Integer> a = executor.submit(first);
+                Future<Integer> b = executor.submit(second);
+                return List.of(a.get(), b.get());
+            });
+            // the transaction that would wait for a lower stripe gives up at once, the other proceeds
+            assertEquals(List.of(200, 503), statuses.stream().sorted().toList());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private int transaction(ThreadLocal<Synchronization> registered, List<Long> firstStores,
+                            List<Long> secondStores, CyclicBarrier barrier) throws Exception {
+        try {
+            index.lockForTransaction(firstStores, List.of());
+            barrier.await();
+            index.lockForTransaction(secondStores, List.of());
+            return 200;
+        } catch (WebApplicationException e) {
+            return e.getResponse().getStatus();
+        } finally {
+            registered.get().afterCompletion(Status.STATUS_ROLLEDBACK);
+        }
+    }
+
+    private ProductWarehouseStoreAssociation association(Long productId, Long warehouseId, Long storeId) {
+        Product product = new Product();
+        product.id = productId;
+        Store store = new Store();
+        store.id = storeId;
+        return new ProductWarehouseStoreAssociation(product, warehouseId, store);
+    }
+}
@@ -0,0 +1,132 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.transaction.Transactional;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import com.fulfilment.application.monolith.products.Product;
+import com.fulfilment.application.monolith.stores.Store;
+
+/**
+ * Runs EXPLAIN on H2 for the SQL that the association table reads of {@link FulfilmentRepository}
+ * and the in-transaction counts of {@link FulfilmentAnalyticsRepository} generate, captured with {@link StatementCapture}, so a dropped or reordered index or a changed
+ * query is caught here instead of in the slow-query log.
+ */
+@QuarkusTest
+class FulfilmentIndexTest {
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    FulfilmentRepository repository;
+
+    @Inject
+    FulfilmentAnalyticsRepository analytics;
+
+    private final Product product = reference(new Product());
+    private final Store store = reference(new Store());
+
+    private static <T extends PanacheEntity> T reference(T entity) {
+        entity.id = 1L;
+        return entity;
+    }
+
+    @Transactional
+    String explainGenerated(Runnable access) {
+        List<String> statements = StatementCapture.capture(access);
+        assertEquals(1, statements.size(), statements.toString());
+
+        String sql = statements.get(0);
+        Query explain = entityManager.createNativeQuery("EXPLAIN " + sql);
+        int parameters = (int) sql.chars().filter(c -> c == '?').count();
+        for (int i = 1; i <= parameters; i++) {
+            explain.setParameter(i, 1L);
+        }
+        return String.valueOf(explain.getSingleResult());
+    }
+
+    /**
+     * Name of the single-column index H2 creates for the foreign key on the given column.
+     * PostgreSQL creates no such index, there the same reads use the explicit indexes.
+     */
+    @Transactional
+    String foreignKeyIndex(String column) {
+        return String.valueOf(entityManager.createNativeQuery(
+                        "SELECT INDEX_NAME FROM INFORMATION_SCHEMA.INDEXES " +
+                                "WHERE TABLE_NAME = 'PRODUCT_WAREHOUSE_STORE_ASSOCIATION' " +
+                                "AND INDEX_TYPE_NAME = 'INDEX' AND INDEX_NAME IN (" +
+                                "SELECT INDEX_NAME FROM INFORMATION_SCHEMA.INDEX_COLUMNS " +
+                                "WHERE TABLE_NAME = 'PRODUCT_WAREHOUSE_STORE_ASSOCIATION' " +
+                                "GROUP BY INDEX_NAME HAVING COUNT(*) = 1 AND MAX(COLUMN_NAME) = ?1)")
+                .setParameter(1, column.toUpperCase())
+                .getSingleResult()).toLowerCase();
+    }
+
+    private void assertUsesIndex(String index, Runnable access) {
+        String plan = explainGenerated(access).toLowerCase();
+        assertFalse(plan.contains("tablescan"), plan);
+        // H2 prints the index as "/* PUBLIC.<index>: <condition> */"
+        assertTrue(plan.contains("public." + index + ":"), plan);
+    }
+
+    @Test
+    void findByProductAndStore() {
+        assertUsesIndex("idx_pwsa_store_product_warehouse",
+                () -> repository.findByProductAndStore(product, store));
+    }
+
+    @Test
+    void findByStore() {
+        // without the id range H2 prefers its foreign key index and sorts
+        assertUsesIndex(foreignKeyIndex("store_id"),
+                () -> repository.findByStore(store));
+    }
+
+    @Test
+    void findByStorePage() {
+        assertUsesIndex("idx_pwsa_store_id",
+                () -> repository.findByStore(store, 0, 100));
+    }
+
+    @Test
+    void streamByStore() {
+        assertUsesIndex(foreignKeyIndex("store_id"), () -> {
+            try (Stream<FulfilmentAssociationView> rows = repository.streamByStore(store.id)) {
+                rows.count();
+            }
+        });
+    }
+
+    @Test
+    void findByWarehouse() {
+        assertUsesIndex("idx_pwsa_warehouse_product",
+                () -> repository.findByWarehouse(1L));
+    }
+
+    @Test
+    void exists() {
+        // H2 backs the unique constraint with an index named after it
+        assertUsesIndex("uk_product_warehouse_store_index_e",
+                () -> repository.exists(product, 1L, store));
+    }
+
+    @Test
+    void countAssociationsForStoreInTransaction() {
+        assertUsesIndex(foreignKeyIndex("store_id"),
+                () -> analytics.countAssociationsForStore(store.id));
+    }
+
+    @Test
+    void countAssociationsForProductInTransaction() {
+        assertUsesIndex(foreignKeyIndex("product_id"),
+                () -> analytics.countAssociationsForProduct(product.id));
+    }
+}
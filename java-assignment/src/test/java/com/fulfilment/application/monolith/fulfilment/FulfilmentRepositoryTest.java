@@ -7,6 +7,7 @@ import io.quarkus.test.junit.QuarkusTest;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
 import com.fulfilment.application.monolith.products.Product;
@@ -20,6 +21,37 @@ class FulfilmentRepositoryTest {
     @Inject
     FulfilmentRepository repository;
 
+    @Inject
+    FulfilmentConstraintIndex constraintIndex;
+
+    @AfterEach
+    void constraintIndexMatchesDatabase() {
+        assertTrue(constraintIndex.matchesDatabase(),
+                "an association was written past FulfilmentService without telling the constraint index");
+    }
+
+    @Transactional
+    ProductWarehouseStoreAssociation persistDirectly(Long warehouseId) {
+        Product product = new Product();
+        product.persist();
+        Store store = new Store();
+        store.persist();
+        ProductWarehouseStoreAssociation association =
+                new ProductWarehouseStoreAssociation(product, warehouseId, store);
+        repository.persist(association);
+        return association;
+    }
+
+    @Test
+    void testConstraintIndexMissesWritesThatBypassIt() {
+        ProductWarehouseStoreAssociation association = persistDirectly(912L);
+
+        assertFalse(constraintIndex.matchesDatabase());
+
+        constraintIndex.recordCreated(association);
+        assertTrue(constraintIndex.matchesDatabase());
+    }
+
     @Test
     @Transactional
     void testFindByProductAndStore() {
@@ -30,7 +62,7 @@ class FulfilmentRepositoryTest {
         Store store = new Store();
         store.persist();
 
-        List<ProductWarehouseStoreAssociation> result =
+        List<FulfilmentAssociationView> result =
                 repository.findByProductAndStore(product, store);
 
         assertNotNull(result);
@@ -43,7 +75,7 @@ class FulfilmentRepositoryTest {
         Store store = new Store();
         store.persist();
 
-        List<ProductWarehouseStoreAssociation> result =
+        List<FulfilmentAssociationView> result =
                 repository.findByStore(store);
 
         assertNotNull(result);
@@ -63,55 +95,64 @@ class FulfilmentRepositoryTest {
                 new ProductWarehouseStoreAssociation(product, 1L, store);
 
         repository.persist(association);
+        constraintIndex.recordCreated(association);
 
-        List<ProductWarehouseStoreAssociation> result =
+        List<FulfilmentAssociationView> result =
                 repository.findByWarehouse(1L);
 
         assertNotNull(result);
     }
 
     @Test
-    @Transactional
-    void testCountWarehousesForProductInStore() {
+    @TestTransaction
+    void testFindByStoreProjectsFlatFields() {
 
-        Product product = new Product();
+        Product product = new Product("PROJECTED-PRODUCT");
         product.persist();
 
-        Store store = new Store();
+        Store store = new Store("PROJECTED-STORE");
         store.persist();
 
-        long count =
-                repository.countWarehousesForProductInStore(product, store);
-
-        assertTrue(count >= 0);
+        ProductWarehouseStoreAssociation association =
+                new ProductWarehouseStoreAssociation(product, 7L, store);
+        repository.persist(association);
+        repository.flush();
+        repository.getEntityManager().clear();
+
+        List<FulfilmentAssociationView> result = repository.findByStore(store);
+
+        assertEquals(1, result.size());
+        FulfilmentAssociationView view = result.get(0);
+        assertEquals(association.id, view.id);
+        assertEquals(product.id, view.productId);
+        assertEquals("PROJECTED-PRODUCT", view.productName);
+        assertEquals(7L, view.warehouseId);
+        assertEquals(store.id, view.storeId);
+        assertEquals("PROJECTED-STORE", view.storeName);
+        assertNotNull(view.createdAt);
+        // projections do not load the entities into the persistence context
+        assertFalse(repository.getEntityManager().contains(association));
     }
 
     @Test
     @Transactional
-    void testCountWarehousesForStore() {
+    void testExists_WhenFalse() {
+
+        Product product = new Product();
+        product.persist();
 
         Store store = new Store();
         store.persist();
 
-        long count =
-                repository.countWarehousesForStore(store);
-
-        assertTrue(count >= 0);
-    }
-
-    @Test
-    @Transactional
-    void testCountProductTypesInWarehouse() {
-
-        long count =
-                repository.countProductTypesInWarehouse(1L);
+        boolean exists =
+                repository.exists(product, 999L, store);
 
-        assertTrue(count >= 0);
+        assertFalse(exists);
     }
 
     @Test
-    @Transactional
-    void testExists_WhenFalse() {
+    @TestTransaction
+    void testStreamAssociationKeys() {
 
         Product product = new Product();
         product.persist();
@@ -119,10 +160,16 @@ class FulfilmentRepositoryTest {
         Store store = new Store();
         store.persist();
 
-        boolean exists =
-                repository.exists(product, 999L, store);
+        repository.persist(new ProductWarehouseStoreAssociation(product, 911L, store));
 
-        assertFalse(exists);
+        List<Object[]> keys;
+        try (var rows = repository.streamAssociationKeys()) {
+            keys = rows.filter(row -> product.id.equals(row[0])).toList();
+        }
+
+        assertEquals(1, keys.size());
+        assertEquals(911L, keys.get(0)[1]);
+        assertEquals(store.id, keys.get(0)[2]);
     }
 
     @Test
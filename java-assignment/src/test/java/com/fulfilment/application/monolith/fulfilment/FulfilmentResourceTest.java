@@ -1,19 +1,27 @@
 package com.fulfilment.application.monolith.fulfilment;
 
+import static io.restassured.RestAssured.given;
 import static org.junit.jupiter.api.Assertions.*;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import io.quarkus.test.TestTransaction;
 import io.quarkus.test.junit.QuarkusTest;
 import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
 import jakarta.ws.rs.WebApplicationException;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
 import com.fulfilment.application.monolith.products.Product;
 import com.fulfilment.application.monolith.products.ProductRepository;
 import com.fulfilment.application.monolith.stores.Store;
 
+import io.restassured.path.json.JsonPath;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 @QuarkusTest
@@ -28,6 +36,18 @@ class FulfilmentResourceTest {
     @Inject
     FulfilmentRepository fulfilmentRepository;
 
+    @Inject
+    FulfilmentConstraintIndex constraintIndex;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @AfterEach
+    void constraintIndexMatchesDatabase() {
+        assertTrue(constraintIndex.matchesDatabase(),
+                "an association was written past FulfilmentService without telling the constraint index");
+    }
+
     // -------------------- CREATE TESTS --------------------
 
     @Test
@@ -74,6 +94,159 @@ class FulfilmentResourceTest {
                 () -> resource.createAssociation(request));
     }
 
+    // -------------------- BATCH CREATE --------------------
+
+    @Test
+    void testCreateAssociations_EmptyBatch() {
+        assertThrows(WebApplicationException.class,
+                () -> resource.createAssociations(List.of()));
+    }
+
+    @Test
+    @TestTransaction
+    void testCreateAssociations_ReportsEachItem() {
+
+        Product product = new Product();
+        product.persist();
+
+        Store store = new Store();
+        store.persist();
+
+        List<FulfilmentAssociationRequest> requests = Arrays.asList(
+                new FulfilmentAssociationRequest(product.id, 301L, store.id),
+                new FulfilmentAssociationRequest(product.id, 301L, store.id),
+                new FulfilmentAssociationRequest(product.id, 302L, store.id),
+                new FulfilmentAssociationRequest(product.id, 303L, store.id),
+                new FulfilmentAssociationRequest(-1L, 301L, store.id),
+                new FulfilmentAssociationRequest(9999L, 301L, store.id),
+                null
+        );
+
+        List<FulfilmentBatchResult> results = resource.createAssociations(requests);
+
+        assertEquals(7, results.size());
+        assertEquals(FulfilmentBatchResult.Status.CREATED, results.get(0).status);
+        assertNotNull(results.get(0).associationId);
+        assertEquals(FulfilmentBatchResult.Status.DUPLICATE, results.get(1).status);
+        assertEquals(FulfilmentBatchResult.Status.CREATED, results.get(2).status);
+        // third warehouse for the same product in the same store, within one batch
+        assertEquals(FulfilmentBatchResult.Status.CONSTRAINT_VIOLATED, results.get(3).status);
+        assertEquals(FulfilmentBatchResult.Status.INVALID, results.get(4).status);
+        assertEquals(FulfilmentBatchResult.Status.NOT_FOUND, results.get(5).status);
+        assertEquals(FulfilmentBatchResult.Status.INVALID, results.get(6).status);
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i, results.get(i).index);
+        }
+
+        assertEquals(2, fulfilmentRepository.findByStore(store).size());
+    }
+
+    @Test
+    void testCreateAssociations_CountsRejectionsOnceCommitted() {
+
+        Store store = QuarkusTransaction.requiringNew().call(() -> {
+            Store created = new Store();
+            created.persist();
+            return created;
+        });
+        Product product = QuarkusTransaction.requiringNew().call(() -> {
+            Product created = new Product();
+            created.persist();
+            return created;
+        });
+        List<FulfilmentAssociationRequest> sameTwice = List.of(
+                new FulfilmentAssociationRequest(product.id, 321L, store.id),
+                new FulfilmentAssociationRequest(product.id, 321L, store.id));
+        double before = batchDuplicates();
+
+        QuarkusTransaction.begin();
+        try {
+            assertEquals(FulfilmentBatchResult.Status.DUPLICATE, resource.createAssociations(sameTwice).get(1).status);
+            assertEquals(before, batchDuplicates());
+        } finally {
+            QuarkusTransaction.rollback();
+        }
+        assertEquals(before, batchDuplicates());
+
+        assertEquals(FulfilmentBatchResult.Status.DUPLICATE, resource.createAssociations(sameTwice).get(1).status);
+        assertEquals(before + 1, batchDuplicates());
+    }
+
+    private double batchDuplicates() {
+        return meterRegistry.counter(FulfilmentService.REJECTIONS,
+                "reason", FulfilmentConstraintVerdict.Outcome.DUPLICATE.name(), "mode", "batch").count();
+    }
+
+    @Test
+    @TestTransaction
+    void testCreateAssociations_RejectsInvalidWarehouseIdPerItem() {
+
+        Product product = new Product();
+        product.persist();
+
+        Store store = new Store();
+        store.persist();
+
+        List<FulfilmentBatchResult> results = resource.createAssociations(List.of(
+                new FulfilmentAssociationRequest(product.id, 0L, store.id),
+                new FulfilmentAssociationRequest(product.id, 311L, store.id)));
+
+        assertEquals(FulfilmentBatchResult.Status.INVALID, results.get(0).status);
+        assertEquals("WarehouseId must be valid", results.get(0).error);
+        assertEquals(FulfilmentBatchResult.Status.CREATED, results.get(1).status);
+    }
+
+    @Test
+    @TestTransaction
+    void testCreateAssociations_KeepsCallerEntitiesManagedAcrossFlushes() {
+
+        Product first = new Product();
+        first.persist();
+        Product second = new Product();
+        second.persist();
+
+        // three warehouses per store, so the batch passes the flush size without a rejection
+        List<FulfilmentAssociationRequest> requests = new ArrayList<>();
+        List<Store> stores = new ArrayList<>();
+        long warehouseId = 5000L;
+        while (requests.size() <= FulfilmentService.BATCH_FLUSH_SIZE) {
+            Store store = new Store();
+            store.persist();
+            stores.add(store);
+            requests.add(new FulfilmentAssociationRequest(first.id, warehouseId++, store.id));
+            requests.add(new FulfilmentAssociationRequest(first.id, warehouseId++, store.id));
+            requests.add(new FulfilmentAssociationRequest(second.id, warehouseId++, store.id));
+        }
+
+        List<FulfilmentBatchResult> results = resource.createAssociations(requests);
+
+        assertTrue(results.stream().allMatch(result -> result.status == FulfilmentBatchResult.Status.CREATED));
+        EntityManager entityManager = fulfilmentRepository.getEntityManager();
+        assertTrue(entityManager.contains(first));
+        assertTrue(entityManager.contains(second));
+        assertTrue(stores.stream().allMatch(entityManager::contains));
+    }
+
+    @Test
+    @TestTransaction
+    void testCreateAssociations_LargerThanFlushSize() {
+
+        Product product = new Product();
+        product.persist();
+
+        List<FulfilmentAssociationRequest> requests = new ArrayList<>();
+        for (long i = 0; i < 120; i++) {
+            Store store = new Store();
+            store.persist();
+            requests.add(new FulfilmentAssociationRequest(product.id, 5000L + i, store.id));
+        }
+
+        List<FulfilmentBatchResult> results = resource.createAssociations(requests);
+
+        assertTrue(results.stream().allMatch(result -> result.status == FulfilmentBatchResult.Status.CREATED));
+        assertEquals(120, results.stream().map(result -> result.associationId).distinct().count());
+    }
+
     // -------------------- GET ASSOCIATIONS --------------------
 
     @Test
@@ -98,7 +271,7 @@ class FulfilmentResourceTest {
         Store store = new Store();
         store.persist();
 
-        List<ProductWarehouseStoreAssociation> result =
+        List<FulfilmentAssociationView> result =
                 resource.getAssociations(product.id, store.id);
 
         assertNotNull(result);
@@ -107,7 +280,7 @@ class FulfilmentResourceTest {
     @Test
     void testGetStoreAssociations_NotFound() {
         assertThrows(WebApplicationException.class,
-                () -> resource.getStoreAssociations(9999L));
+                () -> resource.getStoreAssociations(9999L, null, null));
     }
 
     @Test
@@ -117,12 +290,133 @@ class FulfilmentResourceTest {
         Store store = new Store();
         store.persist();
 
-        List<ProductWarehouseStoreAssociation> result =
-                resource.getStoreAssociations(store.id);
+        List<FulfilmentAssociationView> result =
+                resource.getStoreAssociations(store.id, null, null);
 
         assertNotNull(result);
     }
 
+    @Test
+    void testGetStoreAssociations_InvalidPage() {
+        assertThrows(WebApplicationException.class,
+                () -> resource.getStoreAssociations(1L, -1L, null));
+        assertThrows(WebApplicationException.class,
+                () -> resource.getStoreAssociations(1L, null, 0));
+        assertThrows(WebApplicationException.class,
+                () -> resource.getStoreAssociations(1L, null, 1001));
+    }
+
+    @Test
+    @TestTransaction
+    void testGetStoreAssociations_KeysetPages() {
+        Store store = new Store();
+        store.persist();
+        for (long warehouseId = 1; warehouseId <= 3; warehouseId++) {
+            Product product = new Product();
+            product.persist();
+            fulfilmentRepository.persist(new ProductWarehouseStoreAssociation(product, warehouseId, store));
+        }
+
+        List<FulfilmentAssociationView> first = resource.getStoreAssociations(store.id, null, 2);
+        assertEquals(2, first.size());
+        assertTrue(first.get(0).id < first.get(1).id);
+
+        List<FulfilmentAssociationView> second =
+                resource.getStoreAssociations(store.id, first.get(1).id, 2);
+        assertEquals(1, second.size());
+        assertEquals(3L, second.get(0).warehouseId);
+
+        assertTrue(resource.getStoreAssociations(store.id, second.get(0).id, 2).isEmpty());
+    }
+
+    @Transactional
+    Long createStoreWithAssociations(int count) {
+        Store store = new Store();
+        store.persist();
+        for (int i = 0; i < count; i++) {
+            Product product = new Product();
+            product.persist();
+            // past the service, whose limits these rows exceed, so the index is told directly
+            ProductWarehouseStoreAssociation association =
+                    new ProductWarehouseStoreAssociation(product, 9000L + i, store);
+            fulfilmentRepository.persist(association);
+            constraintIndex.recordCreated(association);
+        }
+        return store.id;
+    }
+
+    @Test
+    void testGetStoreAssociations_UnpagedClientIsNotTruncated() {
+        Long storeId = createStoreWithAssociations(120);
+
+        List<Long> ids = given()
+                .when()
+                .get("/fulfillment/store/" + storeId)
+                .then()
+                .statusCode(200)
+                .contentType("application/json")
+                .extract()
+                .jsonPath()
+                .getList("id", Long.class);
+
+        assertEquals(120, ids.size());
+        assertEquals(ids.stream().sorted().toList(), ids);
+    }
+
+    @Test
+    void testGetStoreAssociations_DefaultPageOverHttp() {
+        Long storeId = createStoreWithAssociations(120);
+
+        List<Long> ids = given()
+                .queryParam("after", 0)
+                .when()
+                .get("/fulfillment/store/" + storeId)
+                .then()
+                .statusCode(200)
+                .contentType("application/json")
+                .extract()
+                .jsonPath()
+                .getList("id", Long.class);
+
+        assertEquals(100, ids.size());
+    }
+
+    @Test
+    void testStreamStoreAssociations() {
+        Long storeId = createStoreWithAssociations(120);
+
+        String body = given()
+                .accept(FulfilmentResource.NDJSON)
+                .when()
+                .get("/fulfillment/store/" + storeId)
+                .then()
+                .statusCode(200)
+                .contentType(FulfilmentResource.NDJSON)
+                .extract()
+                .asString();
+
+        // one JSON object per line, ordered by id, across several persistence context clears
+        List<String> lines = body.lines().toList();
+        assertEquals(120, lines.size());
+        long previousId = 0;
+        for (String line : lines) {
+            long id = JsonPath.from(line).getLong("id");
+            assertTrue(id > previousId);
+            assertEquals(storeId, JsonPath.from(line).getLong("storeId"));
+            previousId = id;
+        }
+    }
+
+    @Test
+    void testStreamStoreAssociations_NotFound() {
+        given()
+                .accept(FulfilmentResource.NDJSON)
+                .when()
+                .get("/fulfillment/store/9999")
+                .then()
+                .statusCode(404);
+    }
+
     @Test
     @Transactional
     void testGetWarehouseAssociations() {
@@ -138,8 +432,9 @@ class FulfilmentResourceTest {
                 new ProductWarehouseStoreAssociation(product, 10L, store);
 
         fulfilmentRepository.persist(association);
+        constraintIndex.recordCreated(association);
 
-        List<ProductWarehouseStoreAssociation> result =
+        List<FulfilmentAssociationView> result =
                 resource.getWarehouseAssociations(String.valueOf(10L));
 
         assertNotNull(result);
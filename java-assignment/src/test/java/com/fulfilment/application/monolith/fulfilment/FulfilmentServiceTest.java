@@ -2,12 +2,15 @@ package com.fulfilment.application.monolith.fulfilment;
 
 import com.fulfilment.application.monolith.products.Product;
 import com.fulfilment.application.monolith.stores.Store;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.ws.rs.WebApplicationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import java.util.Collections;
 import java.util.List;
@@ -21,6 +24,12 @@ class FulfilmentServiceTest {
     @Mock
     FulfilmentRepository repository;
 
+    @Mock
+    FulfilmentConstraintIndex constraintIndex;
+
+    @Spy
+    MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     FulfilmentService service;
 
@@ -82,10 +91,8 @@ class FulfilmentServiceTest {
     Store store = new Store();
     store.id = 1L;
 
-    when(repository.exists(product, 1L, store)).thenReturn(false);
-    when(repository.countWarehousesForProductInStore(product, store)).thenReturn(0L);
-    when(repository.countWarehousesForStore(store)).thenReturn(0L);
-    when(repository.countProductTypesInWarehouse(1L)).thenReturn(0L);
+    when(constraintIndex.evaluate(1L, 1L, 1L))
+            .thenReturn(new FulfilmentConstraintVerdict(false, 0, 0, 0));
 
     ProductWarehouseStoreAssociation result =
             service.createAssociation(product, 1L, store);
@@ -120,7 +127,8 @@ class FulfilmentServiceTest {
 
     @Test
     void shouldThrowWhenDuplicateExists() {
-        when(repository.exists(product, 1L, store)).thenReturn(true);
+        when(constraintIndex.evaluate(1L, 1L, 1L))
+                .thenReturn(new FulfilmentConstraintVerdict(true, 1, 1, 1));
 
         WebApplicationException ex = assertThrows(
                 WebApplicationException.class,
@@ -128,6 +136,8 @@ class FulfilmentServiceTest {
         );
 
         assertEquals(409, ex.getResponse().getStatus());
+        assertEquals(1.0, meterRegistry.counter(FulfilmentService.REJECTIONS,
+                "reason", "DUPLICATE", "mode", "single").count());
     }
 
     // =========================
@@ -136,9 +146,8 @@ class FulfilmentServiceTest {
 
     @Test
     void shouldThrowWhenMaxWarehousesPerProductPerStoreReached() {
-        when(repository.exists(product, 1L, store)).thenReturn(false);
-        when(repository.countWarehousesForProductInStore(product, store))
-                .thenReturn(2L);
+        when(constraintIndex.evaluate(1L, 1L, 1L))
+                .thenReturn(new FulfilmentConstraintVerdict(false, 2, 2, 1));
 
         WebApplicationException ex = assertThrows(
                 WebApplicationException.class,
@@ -154,11 +163,8 @@ class FulfilmentServiceTest {
 
     @Test
     void shouldThrowWhenMaxWarehousesPerStoreReached() {
-        when(repository.exists(product, 1L, store)).thenReturn(false);
-        when(repository.countWarehousesForProductInStore(product, store))
-                .thenReturn(0L);
-        when(repository.countWarehousesForStore(store))
-                .thenReturn(3L);
+        when(constraintIndex.evaluate(1L, 1L, 1L))
+                .thenReturn(new FulfilmentConstraintVerdict(false, 0, 3, 1));
 
         WebApplicationException ex = assertThrows(
                 WebApplicationException.class,
@@ -166,6 +172,8 @@ class FulfilmentServiceTest {
         );
 
         assertEquals(422, ex.getResponse().getStatus());
+        assertEquals(1.0, meterRegistry.counter(FulfilmentService.REJECTIONS,
+                "reason", "MAX_WAREHOUSES_PER_STORE", "mode", "single").count());
     }
 
     // =========================
@@ -174,13 +182,8 @@ class FulfilmentServiceTest {
 
     @Test
     void shouldThrowWhenMaxProductTypesPerWarehouseReached() {
-        when(repository.exists(product, 1L, store)).thenReturn(false);
-        when(repository.countWarehousesForProductInStore(product, store))
-                .thenReturn(0L);
-        when(repository.countWarehousesForStore(store))
-                .thenReturn(0L);
-        when(repository.countProductTypesInWarehouse(1L))
-                .thenReturn(5L);
+        when(constraintIndex.evaluate(1L, 1L, 1L))
+                .thenReturn(new FulfilmentConstraintVerdict(false, 0, 0, 5));
 
         WebApplicationException ex = assertThrows(
                 WebApplicationException.class,
@@ -196,19 +199,15 @@ class FulfilmentServiceTest {
 
     @Test
     void shouldCreateAssociationSuccessfully() {
-        when(repository.exists(product, 1L, store)).thenReturn(false);
-        when(repository.countWarehousesForProductInStore(product, store))
-                .thenReturn(0L);
-        when(repository.countWarehousesForStore(store))
-                .thenReturn(0L);
-        when(repository.countProductTypesInWarehouse(1L))
-                .thenReturn(0L);
+        when(constraintIndex.evaluate(1L, 1L, 1L))
+                .thenReturn(new FulfilmentConstraintVerdict(false, 0, 0, 0));
 
         ProductWarehouseStoreAssociation result =
                 service.createAssociation(product, 1L, store);
 
         assertNotNull(result);
         verify(repository).persist(any(ProductWarehouseStoreAssociation.class));
+        verify(constraintIndex).recordCreated(result);
     }
 
     // =========================
@@ -234,6 +233,7 @@ class FulfilmentServiceTest {
         service.removeAssociation(association);
 
         verify(repository).deleteById(10L);
+        verify(constraintIndex).recordRemoved(association);
     }
 
     // =========================
@@ -245,7 +245,7 @@ class FulfilmentServiceTest {
         when(repository.findByProductAndStore(product, store))
                 .thenReturn(Collections.emptyList());
 
-        List<ProductWarehouseStoreAssociation> result =
+        List<FulfilmentAssociationView> result =
                 service.getWarehousesForProductInStore(product, store);
 
         assertNotNull(result);
@@ -254,14 +254,14 @@ class FulfilmentServiceTest {
 
     @Test
     void shouldReturnAssociationsForStore() {
-        when(repository.findByStore(store))
+        when(repository.findByStore(store, 0L, 100))
                 .thenReturn(Collections.emptyList());
 
-        List<ProductWarehouseStoreAssociation> result =
-                service.getAssociationsForStore(store);
+        List<FulfilmentAssociationView> result =
+                service.getAssociationsForStore(store, 0L, 100);
 
         assertNotNull(result);
-        verify(repository).findByStore(store);
+        verify(repository).findByStore(store, 0L, 100);
     }
 
     @Test
@@ -269,7 +269,7 @@ class FulfilmentServiceTest {
         when(repository.findByWarehouse(1L))
                 .thenReturn(Collections.emptyList());
 
-        List<ProductWarehouseStoreAssociation> result =
+        List<FulfilmentAssociationView> result =
                 service.getAssociationsForWarehouse(1L);
 
         assertNotNull(result);
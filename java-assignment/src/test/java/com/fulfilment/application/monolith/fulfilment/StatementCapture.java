@@ -0,0 +1,46 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+import com.fulfilment.application.monolith.metrics.StatementCountingInspector;
+import io.quarkus.hibernate.orm.PersistenceUnitExtension;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Alternative;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Statement inspector for tests that records the SQL Hibernate generates on the current thread,
+ * so a test can check the statements a repository method actually sends.
+ * Statements are still counted as by {@link StatementCountingInspector}.
+ */
+@Alternative
+@Priority(1)
+@PersistenceUnitExtension
+@ApplicationScoped
+public class StatementCapture extends StatementCountingInspector {
+
+    private static final ThreadLocal<List<String>> CAPTURED = new ThreadLocal<>();
+
+    /**
+     * Run the action and return the statements it prepared, in order.
+     */
+    static List<String> capture(Runnable action) {
+        List<String> statements = new ArrayList<>();
+        CAPTURED.set(statements);
+        try {
+            action.run();
+        } finally {
+            CAPTURED.remove();
+        }
+        return statements;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        List<String> statements = CAPTURED.get();
+        if (statements != null) {
+            statements.add(sql);
+        }
+        return super.inspect(sql);
+    }
+}
@@ -0,0 +1,76 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StripedLockTest {
+
+    @Test
+    void shouldAcquireDistinctStripesInOrder() throws InterruptedException {
+        StripedLock lock = new StripedLock(4);
+
+        int[] stripes = lock.acquire(List.of(6L, 1L, 5L, 2L), 1, TimeUnit.SECONDS);
+
+        assertArrayEquals(new int[] {1, 2}, stripes);
+    }
+
+    @Test
+    void shouldTimeOutAndReleasePartialAcquisition() throws InterruptedException {
+        StripedLock lock = new StripedLock(4);
+        int[] held = lock.acquire(List.of(3L), 1, TimeUnit.SECONDS);
+
+        assertNull(lock.acquire(List.of(1L, 3L), 10, TimeUnit.MILLISECONDS));
+
+        // stripe 1 must have been given back after the timeout
+        assertNotNull(lock.acquire(List.of(1L), 10, TimeUnit.MILLISECONDS));
+
+        lock.release(held);
+        assertNotNull(lock.acquire(List.of(3L), 10, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void shouldSkipStripesAlreadyHeld() throws InterruptedException {
+        StripedLock lock = new StripedLock(4);
+        int[] held = lock.acquire(List.of(1L), 1, TimeUnit.SECONDS);
+
+        int[] stripes = lock.acquire(List.of(1L, 2L), Set.of(1), true, 10, TimeUnit.MILLISECONDS);
+
+        assertArrayEquals(new int[] {2}, stripes);
+        lock.release(held);
+        lock.release(stripes);
+    }
+
+    @Test
+    void shouldNotWaitForStripesBelowThoseHeld() throws InterruptedException {
+        StripedLock lock = new StripedLock(4);
+        int[] other = lock.acquire(List.of(1L), 1, TimeUnit.SECONDS);
+        int[] held = lock.acquire(List.of(2L), 1, TimeUnit.SECONDS);
+
+        long start = System.nanoTime();
+        assertNull(lock.acquire(List.of(1L, 3L), Set.of(2), true, 5, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+
+        // free lower stripes are taken, and stripe 3 was given back after the failure
+        lock.release(other);
+        assertArrayEquals(new int[] {1, 3}, lock.acquire(List.of(1L, 3L), Set.of(2), true, 10, TimeUnit.MILLISECONDS));
+        lock.release(held);
+    }
+
+    @Test
+    void shouldNotWaitAtAllWhenUnordered() throws InterruptedException {
+        StripedLock lock = new StripedLock(4);
+        int[] other = lock.acquire(List.of(3L), 1, TimeUnit.SECONDS);
+
+        long start = System.nanoTime();
+        assertNull(lock.acquire(List.of(3L), Set.of(), false, 5, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+
+        lock.release(other);
+        assertArrayEquals(new int[] {3}, lock.acquire(List.of(3L), Set.of(), false, 10, TimeUnit.MILLISECONDS));
+    }
+}
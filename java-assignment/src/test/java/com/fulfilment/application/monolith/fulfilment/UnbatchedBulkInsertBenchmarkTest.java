@@ -0,0 +1,26 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+
+/**
+ * Baseline for {@link BatchedBulkInsertBenchmarkTest}.
+ */
+@QuarkusTest
+@TestProfile(BulkInsertProfiles.Unbatched.class)
+class UnbatchedBulkInsertBenchmarkTest extends BulkInsertBenchmark {
+
+    @Override
+    String mode() {
+        return "unbatched";
+    }
+
+    @Override
+    void verifyStatements(long preparedStatements, int rows) {
+        // an insert and a sequence call per row
+        assertTrue(preparedStatements >= 2L * rows,
+                preparedStatements + " statements prepared for " + rows + " rows");
+    }
+}
@@ -0,0 +1,89 @@
+package com.fulfilment.application.monolith.load;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Response times per operation in microseconds, recorded from many threads.
+ * <p>
+ * {@link #write} leaves three files in the report directory: report.txt with a percentile
+ * table per operation, one .hgrm distribution per operation for the HdrHistogram plotter,
+ * and a line per run appended to summary.csv to compare runs across commits.
+ */
+class LatencyReport {
+
+    private static final double MICROS_PER_MILLI = 1_000.0;
+
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+    void record(String operation, long nanos) {
+        histograms.computeIfAbsent(operation, key -> new ConcurrentHistogram(3))
+                .recordValue(Math.max(1, nanos / 1_000));
+    }
+
+    void reset() {
+        histograms.values().forEach(Histogram::reset);
+    }
+
+    /**
+     * All operations together.
+     */
+    Histogram total() {
+        Histogram total = new Histogram(3);
+        histograms.values().forEach(total::add);
+        return total;
+    }
+
+    long throughput(long elapsedNanos) {
+        return total().getTotalCount() * 1_000_000_000L / elapsedNanos;
+    }
+
+    void write(Path directory, String run, long elapsedNanos) throws IOException {
+        Files.createDirectories(directory);
+        Map<String, Histogram> sorted = new TreeMap<>(histograms);
+        Histogram total = total();
+
+        try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve("report.txt")))) {
+            out.printf("%s, %d requests/s%n%n", run, throughput(elapsedNanos));
+            out.printf("%-28s %9s %9s %9s %9s %9s %9s%n",
+                    "operation (ms)", "count", "p50", "p90", "p99", "p99.9", "max");
+            sorted.forEach((operation, histogram) -> row(out, operation, histogram));
+            row(out, "total", total);
+        }
+
+        for (Map.Entry<String, Histogram> entry : sorted.entrySet()) {
+            String file = entry.getKey().replaceAll("[^A-Za-z0-9]+", "_") + ".hgrm";
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(file)))) {
+                entry.getValue().outputPercentileDistribution(out, MICROS_PER_MILLI);
+            }
+        }
+
+        String line = String.join(",", LocalDateTime.now().toString(), run,
+                String.valueOf(total.getTotalCount()), String.valueOf(throughput(elapsedNanos)),
+                millis(total.getValueAtPercentile(50)), millis(total.getValueAtPercentile(99)),
+                millis(total.getValueAtPercentile(99.9)), millis(total.getMaxValue()));
+        Files.writeString(directory.resolve("summary.csv"), line + System.lineSeparator(),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private static void row(PrintStream out, String operation, Histogram histogram) {
+        out.printf("%-28s %9d %9s %9s %9s %9s %9s%n", operation, histogram.getTotalCount(),
+                millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(90)),
+                millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()));
+    }
+
+    private static String millis(long micros) {
+        return String.format(Locale.ROOT, "%.2f", micros / MICROS_PER_MILLI);
+    }
+}
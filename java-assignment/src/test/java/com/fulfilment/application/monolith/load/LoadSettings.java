@@ -0,0 +1,45 @@
+package com.fulfilment.application.monolith.load;
+
+/**
+ * Volumes and traffic of {@link MixedTrafficLoadTest}, each overridable with a system property,
+ * e.g. {@code mvn test -Pload -Dload.requests=100000 -Dload.threads=32}.
+ * The defaults keep a run under a minute so it can gate every commit.
+ */
+final class LoadSettings {
+
+    static final int STORES = Integer.getInteger("load.stores", 100);
+    static final int PRODUCTS = Integer.getInteger("load.products", 1_000);
+    static final int WAREHOUSES = Integer.getInteger("load.warehouses", 200);
+    static final int ASSOCIATIONS = Integer.getInteger("load.associations", 2_000);
+
+    // warehouses are spread over this many locations
+    static final int LOCATIONS = Integer.getInteger("load.locations", 20);
+
+    static final int THREADS = Integer.getInteger("load.threads", 16);
+    static final int WARMUP_REQUESTS = Integer.getInteger("load.warmupRequests", 2_000);
+    static final int REQUESTS = Integer.getInteger("load.requests", 20_000);
+    static final int POOL_SIZE = Integer.getInteger("load.poolSize", 8);
+
+    // builds the application with virtual threads for the endpoints, compare a run with and one
+    // without at e.g. -Dload.threads=1000 against load.postgres, as H2 pins virtual threads;
+    // needs JDK 21+, older JDKs fall back to the worker pool
+    static final boolean VIRTUAL_THREADS = Boolean.getBoolean("load.virtualThreads");
+
+    // host:port/database of a PostgreSQL server to run against instead of the in-memory H2,
+    // e.g. localhost:5432/quarkus_test; user and password are load.postgresUser/Password
+    static final String POSTGRES = System.getProperty("load.postgres", "");
+    static final String POSTGRES_USER = System.getProperty("load.postgresUser", "quarkus_test");
+    static final String POSTGRES_PASSWORD = System.getProperty("load.postgresPassword", "quarkus_test");
+
+    // catalog.reads of the application, blocking or reactive; reactive needs load.postgres
+    static final String CATALOG_READS = System.getProperty("load.catalogReads", "blocking");
+
+    // mixed: the read-heavy mix of all endpoints; catalog: only the store and product reads
+    static final String MIX = System.getProperty("load.mix", "mixed");
+
+    // optional budgets, a run outside them fails; 0 disables the check
+    static final long MAX_P99_MILLIS = Long.getLong("load.maxP99Millis", 0);
+    static final long MIN_THROUGHPUT = Long.getLong("load.minThroughput", 0);
+
+    private LoadSettings() {}
+}
@@ -0,0 +1,35 @@
+package com.fulfilment.application.monolith.load;
+
+import io.quarkus.test.junit.QuarkusTestProfile;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The application against an in-memory H2 database in PostgreSQL compatibility mode,
+ * so the load test needs neither a database server nor network access. With
+ * {@link LoadSettings#POSTGRES} set it runs against that PostgreSQL server instead, whose
+ * tables are dropped and recreated on startup.
+ */
+public class LoadTestProfile implements QuarkusTestProfile {
+
+    @Override
+    public Map<String, String> getConfigOverrides() {
+        Map<String, String> config = new HashMap<>();
+        config.put("quarkus.hibernate-orm.log.sql", "false");
+        if (LoadSettings.POSTGRES.isEmpty()) {
+            config.put("quarkus.datasource.jdbc.url",
+                    "jdbc:h2:mem:load;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH");
+        } else {
+            config.put("quarkus.datasource.db-kind", "postgresql");
+            config.put("quarkus.datasource.jdbc.url", "jdbc:postgresql://" + LoadSettings.POSTGRES);
+            config.put("quarkus.datasource.reactive.url", "postgresql://" + LoadSettings.POSTGRES);
+            config.put("quarkus.datasource.username", LoadSettings.POSTGRES_USER);
+            config.put("quarkus.datasource.password", LoadSettings.POSTGRES_PASSWORD);
+        }
+        config.put("quarkus.datasource.jdbc.max-size", String.valueOf(LoadSettings.POOL_SIZE));
+        config.put("quarkus.datasource.reactive.max-size", String.valueOf(LoadSettings.POOL_SIZE));
+        config.put("warehouse.rest.virtual-threads", String.valueOf(LoadSettings.VIRTUAL_THREADS));
+        config.put("catalog.reads", LoadSettings.CATALOG_READS);
+        return config;
+    }
+}
@@ -0,0 +1,341 @@
+package com.fulfilment.application.monolith.load;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fulfilment.application.monolith.products.Product;
+import com.fulfilment.application.monolith.stores.Store;
+import com.fulfilment.application.monolith.warehouses.adapters.database.DbWarehouse;
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.HdrHistogram.Histogram;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Seeds stores, products, warehouses and associations, then drives a read-heavy mix of
+ * /store, /product, /warehouse and /fulfillment requests from {@link LoadSettings#THREADS}
+ * threads and records the response times per operation in a {@link LatencyReport} under
+ * target/load-test.
+ * <p>
+ * Run with {@code mvn test -Pload}; volumes, traffic and budgets are set with the system
+ * properties of {@link LoadSettings}. Every thread sends its next request as soon as the previous
+ * one is answered, so the percentiles are those of a closed system at full load, not of a fixed
+ * arrival rate.
+ * <p>
+ * Worker pool against virtual threads at 1k clients, on PostgreSQL and compared in summary.csv:
+ * {@code mvn test -Pload -Dload.threads=1000 -Dload.postgres=localhost:5432/quarkus_test} then the
+ * same with {@code -Dload.virtualThreads=true}. On H2 the comparison measures how its synchronized
+ * JDBC paths pin virtual threads, not the execution model.
+ * <p>
+ * Blocking against reactive catalog reads, on PostgreSQL with only store and product reads:
+ * {@code mvn test -Pload -Dload.postgres=localhost:5432/quarkus_test -Dload.mix=catalog} then the
+ * same with {@code -Dload.catalogReads=reactive}.
+ */
+@QuarkusTest
+@TestProfile(LoadTestProfile.class)
+@Tag("load")
+class MixedTrafficLoadTest {
+
+    private static final Logger LOGGER = Logger.getLogger(MixedTrafficLoadTest.class.getName());
+
+    private static final Path REPORT = Path.of("target", "load-test");
+    private static final int SEED_BATCH_SIZE = 500;
+
+    private static final Set<Integer> OK = Set.of(200);
+    private static final Set<Integer> CREATED = Set.of(201);
+    // a rejected association is a valid answer under random traffic
+    private static final Set<Integer> ASSOCIATION_OUTCOMES = Set.of(200, 409, 422);
+
+    @TestHTTPResource("/")
+    URI baseUri;
+
+    @Inject
+    WarehouseRepository warehouseRepository;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    // prefix of the seeded names, unique per run
+    private final String run = "L" + Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong created = new AtomicLong();
+
+    private final List<Long> storeIds = new ArrayList<>();
+    private final List<Long> productIds = new ArrayList<>();
+    private final List<Long> warehouseIds = new ArrayList<>();
+
+    private final Map<String, AtomicInteger> unexpected = new ConcurrentHashMap<>();
+
+    /**
+     * One kind of request and its share of the traffic.
+     */
+    private record Operation(String name, int weight, Set<Integer> expected,
+                             Function<Random, HttpRequest> request) {
+    }
+
+    @Test
+    void measureMixedTraffic() throws Exception {
+        long seedStart = System.nanoTime();
+        seed();
+        LOGGER.infof("Seeded %d stores, %d products, %d warehouses and %d associations in %d ms",
+                storeIds.size(), productIds.size(), warehouseIds.size(), LoadSettings.ASSOCIATIONS,
+                (System.nanoTime() - seedStart) / 1_000_000);
+
+        List<Operation> operations = operations();
+        LatencyReport report = new LatencyReport();
+
+        drive(operations, report, LoadSettings.WARMUP_REQUESTS);
+        report.reset();
+        unexpected.clear();
+
+        long elapsed = drive(operations, report, LoadSettings.REQUESTS);
+
+        String description = String.format("%s mix=%s threads=%d pool=%d endpoints=%s catalog=%s",
+                LoadSettings.POSTGRES.isEmpty() ? "h2-postgresql" : "postgresql", LoadSettings.MIX,
+                LoadSettings.THREADS, LoadSettings.POOL_SIZE, endpointThreads(), LoadSettings.CATALOG_READS);
+        report.write(REPORT, description, elapsed);
+        Histogram total = report.total();
+        long throughput = report.throughput(elapsed);
+        LOGGER.infof("Load test %s: %d requests/s, p50 %d us, p99 %d us, max %d us, report in %s",
+                description, throughput, total.getValueAtPercentile(50), total.getValueAtPercentile(99),
+                total.getMaxValue(), REPORT.toAbsolutePath());
+
+        assertEquals(Map.of(), Map.copyOf(unexpected), "operations answered with unexpected statuses");
+        assertEquals(LoadSettings.REQUESTS, total.getTotalCount());
+        if (LoadSettings.MAX_P99_MILLIS > 0) {
+            assertTrue(total.getValueAtPercentile(99) <= LoadSettings.MAX_P99_MILLIS * 1_000,
+                    "p99 of " + total.getValueAtPercentile(99) + " us over the budget");
+        }
+        if (LoadSettings.MIN_THROUGHPUT > 0) {
+            assertTrue(throughput >= LoadSettings.MIN_THROUGHPUT,
+                    throughput + " requests/s below the budget");
+        }
+    }
+
+    /**
+     * What the endpoints run on; virtual threads need both the setting and a JDK that has them.
+     */
+    private static String endpointThreads() {
+        return LoadSettings.VIRTUAL_THREADS && Runtime.version().feature() >= 21 ? "virtual" : "worker";
+    }
+
+    private List<Operation> operations() {
+        if ("catalog".equals(LoadSettings.MIX)) {
+            return catalogOperations();
+        }
+        return List.of(
+                new Operation("GET /store/{id}", 15, OK,
+                        random -> get("store/" + pick(random, storeIds))),
+                new Operation("GET /product/{id}", 25, OK,
+                        random -> get("product/" + pick(random, productIds))),
+                new Operation("GET /warehouse/{id}", 15, OK,
+                        random -> get("warehouse/" + pick(random, warehouseIds))),
+                new Operation("GET /warehouse?location", 10, OK,
+                        random -> get("warehouse?limit=50&location=" + location(random.nextInt(LoadSettings.LOCATIONS)))),
+                new Operation("GET /fulfillment/store/{id}", 15, OK,
+                        random -> get("fulfillment/store/" + pick(random, storeIds) + "?limit=100")),
+                new Operation("POST /fulfillment", 10, ASSOCIATION_OUTCOMES,
+                        random -> post("fulfillment", association(random))),
+                new Operation("POST /product", 5, CREATED,
+                        random -> post("product", "{\"name\":\"" + nextName("P") + "\",\"stock\":1}")),
+                new Operation("POST /store", 5, CREATED,
+                        random -> post("store", "{\"name\":\"" + nextName("S") + "\",\"quantityProductsInStock\":1}")));
+    }
+
+    /**
+     * Only the store and product reads, the ones served by the event loop with reactive catalog reads.
+     */
+    private List<Operation> catalogOperations() {
+        return List.of(
+                new Operation("GET /store", 30, OK, random -> get("store")),
+                new Operation("GET /store/{id}", 30, OK,
+                        random -> get("store/" + pick(random, storeIds))),
+                new Operation("GET /product", 10, OK, random -> get("product")),
+                new Operation("GET /product/{id}", 30, OK,
+                        random -> get("product/" + pick(random, productIds))));
+    }
+
+    /**
+     * Send {@code requests} requests from {@link LoadSettings#THREADS} threads.
+     *
+     * @return the elapsed nanoseconds
+     */
+    private long drive(List<Operation> operations, LatencyReport report, int requests) throws Exception {
+        int totalWeight = operations.stream().mapToInt(Operation::weight).sum();
+        AtomicInteger remaining = new AtomicInteger(requests);
+        ExecutorService executor = Executors.newFixedThreadPool(LoadSettings.THREADS);
+        try {
+            long start = System.nanoTime();
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < LoadSettings.THREADS; i++) {
+                workers.add(executor.submit(() -> {
+                    Random random = ThreadLocalRandom.current();
+                    while (remaining.getAndDecrement() > 0) {
+                        Operation operation = choose(operations, random.nextInt(totalWeight));
+                        send(operation, operation.request().apply(random), report);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+            return System.nanoTime() - start;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void send(Operation operation, HttpRequest request, LatencyReport report)
+            throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        report.record(operation.name(), System.nanoTime() - start);
+        if (!operation.expected().contains(response.statusCode())) {
+            unexpected.computeIfAbsent(operation.name() + " " + response.statusCode(), key -> new AtomicInteger())
+                    .incrementAndGet();
+        }
+    }
+
+    private static Operation choose(List<Operation> operations, int ticket) {
+        for (Operation operation : operations) {
+            ticket -= operation.weight();
+            if (ticket < 0) {
+                return operation;
+            }
+        }
+        throw new IllegalStateException("Ticket beyond the total weight");
+    }
+
+    /**
+     * Stores, products and warehouses go straight into the database in batches; associations
+     * go through POST /fulfillment/batch so the constraint index knows about them.
+     */
+    private void seed() throws IOException, InterruptedException {
+        for (int from = 0; from < LoadSettings.STORES; from += SEED_BATCH_SIZE) {
+            int count = Math.min(SEED_BATCH_SIZE, LoadSettings.STORES - from);
+            storeIds.addAll(QuarkusTransaction.requiringNew().call(() -> seedStores(count)));
+        }
+        for (int from = 0; from < LoadSettings.PRODUCTS; from += SEED_BATCH_SIZE) {
+            int count = Math.min(SEED_BATCH_SIZE, LoadSettings.PRODUCTS - from);
+            productIds.addAll(QuarkusTransaction.requiringNew().call(() -> seedProducts(count)));
+        }
+        for (int from = 0; from < LoadSettings.WAREHOUSES; from += SEED_BATCH_SIZE) {
+            int first = from;
+            int to = Math.min(from + SEED_BATCH_SIZE, LoadSettings.WAREHOUSES);
+            warehouseIds.addAll(QuarkusTransaction.requiringNew().call(() -> seedWarehouses(first, to)));
+        }
+
+        // a fixed seed, so every run starts from the same associations
+        Random random = new Random(42);
+        for (int from = 0; from < LoadSettings.ASSOCIATIONS; from += SEED_BATCH_SIZE) {
+            int size = Math.min(SEED_BATCH_SIZE, LoadSettings.ASSOCIATIONS - from);
+            List<String> items = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                items.add(association(random));
+            }
+            HttpResponse<String> response = client.send(
+                    post("fulfillment/batch", "[" + String.join(",", items) + "]"),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, response.statusCode(), response.body());
+        }
+    }
+
+    private List<Long> seedStores(int count) {
+        List<Long> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Store store = new Store(nextName("S"));
+            store.quantityProductsInStock = 100;
+            store.persist();
+            ids.add(store.id);
+        }
+        return ids;
+    }
+
+    private List<Long> seedProducts(int count) {
+        List<Long> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Product product = new Product(nextName("P"));
+            product.stock = 10;
+            product.persist();
+            ids.add(product.id);
+        }
+        return ids;
+    }
+
+    private List<Long> seedWarehouses(int from, int to) {
+        List<DbWarehouse> warehouses = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            DbWarehouse warehouse = new DbWarehouse();
+            warehouse.businessUnitCode = nextName("W");
+            warehouse.location = location(i % LoadSettings.LOCATIONS);
+            warehouse.capacity = 100;
+            warehouse.stock = 10;
+            warehouse.createdAt = LocalDateTime.now();
+            warehouseRepository.persist(warehouse);
+            warehouses.add(warehouse);
+        }
+        return warehouses.stream().map(warehouse -> warehouse.id).toList();
+    }
+
+    private String association(Random random) {
+        return "{\"productId\":" + pick(random, productIds)
+                + ",\"warehouseId\":" + pick(random, warehouseIds)
+                + ",\"storeId\":" + pick(random, storeIds) + "}";
+    }
+
+    private String location(int index) {
+        return run + "-LOC-" + index;
+    }
+
+    private String nextName(String kind) {
+        return run + "-" + kind + created.incrementAndGet();
+    }
+
+    private static Long pick(Random random, List<Long> ids) {
+        return ids.get(random.nextInt(ids.size()));
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+}
@@ -3,10 +3,16 @@ package com.fulfilment.application.monolith.location;
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 
 import static io.smallrye.common.constraint.Assert.assertNotNull;
 import static io.smallrye.common.constraint.Assert.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class LocationGatewayTest {
@@ -45,6 +51,47 @@ public class LocationGatewayTest {
             gateway.resolveByIdentifier(""));
     assertTrue(exception.getMessage().contains("must not be null"));
   }
-}
 
+  @Test
+  void testResolveByIdentifierIgnoresCase() {
+    assertSame(gateway.resolveByIdentifier("ZWOLLE-001"), gateway.resolveByIdentifier("zwolle-001"));
+  }
+
+  @Test
+  void testReloadReplacesAllLocations() {
+    gateway.reload(List.of(new Location("ROTTERDAM-001", 4, 200)));
 
+    assertEquals(200, gateway.resolveByIdentifier("rotterdam-001").maxCapacity);
+    assertThrows(IllegalArgumentException.class, () -> gateway.resolveByIdentifier("ZWOLLE-001"));
+  }
+
+  @Test
+  void testReloadRejectsDuplicateIdentifiers() {
+    assertThrows(IllegalArgumentException.class, () -> gateway.reload(List.of(
+            new Location("ROTTERDAM-001", 4, 200),
+            new Location("rotterdam-001", 1, 10))));
+
+    // the previous registry stays in place
+    assertNotNull(gateway.resolveByIdentifier("ZWOLLE-001"));
+  }
+
+  @Test
+  void testReloadFromFile(@TempDir Path dir) throws Exception {
+    Path file = dir.resolve("locations.csv");
+    Files.writeString(file, "# identifier,maxNumberOfWarehouses,maxCapacity\n\nUTRECHT-001, 2, 80\n");
+
+    gateway.reload(file);
+
+    Location loc = gateway.resolveByIdentifier("UTRECHT-001");
+    assertEquals(2, loc.maxNumberOfWarehouses);
+    assertEquals(80, loc.maxCapacity);
+  }
+
+  @Test
+  void testReloadFromInvalidFile(@TempDir Path dir) throws Exception {
+    Path file = dir.resolve("locations.csv");
+    Files.writeString(file, "UTRECHT-001,two,80\n");
+
+    assertThrows(IllegalArgumentException.class, () -> gateway.reload(file));
+  }
+}
@@ -0,0 +1,119 @@
+package com.fulfilment.application.monolith.metrics;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fulfilment.application.monolith.products.Product;
+import com.fulfilment.application.monolith.stores.Store;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.transaction.Transactional;
+import java.util.Arrays;
+import java.util.OptionalDouble;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+class MetricsTest {
+
+    @Transactional
+    Store createStore() {
+        Store store = new Store("METRICS-" + UUID.randomUUID().toString().substring(0, 8));
+        store.persist();
+        return store;
+    }
+
+    @Transactional
+    Product createProduct() {
+        Product product = new Product("METRICS-" + UUID.randomUUID().toString().substring(0, 8));
+        product.persist();
+        return product;
+    }
+
+    private static String scrape() {
+        return given()
+                .when().get("/q/metrics")
+                .then()
+                .statusCode(200)
+                .extract().asString();
+    }
+
+    /**
+     * Value of the first sample of {@code metric} whose labels contain all of {@code labels}.
+     */
+    private static OptionalDouble find(String scrape, String metric, String... labels) {
+        return Arrays.stream(scrape.split("\n"))
+                .filter(line -> line.startsWith(metric + "{"))
+                .filter(line -> Arrays.stream(labels).allMatch(line::contains))
+                .mapToDouble(line -> Double.parseDouble(line.substring(line.lastIndexOf(' ') + 1)))
+                .findFirst();
+    }
+
+    private static double sample(String scrape, String metric, String... labels) {
+        return find(scrape, metric, labels)
+                .orElseThrow(() -> new AssertionError("No sample of " + metric + " with " + Arrays.toString(labels)));
+    }
+
+    private static int createAssociation(Long productId, Long storeId) {
+        return given()
+                .contentType(ContentType.JSON)
+                .body("{\"productId\":" + productId + ",\"warehouseId\":1,\"storeId\":" + storeId + "}")
+                .when().post("/fulfillment")
+                .then()
+                .extract().statusCode();
+    }
+
+    @Test
+    void shouldCountRejectionsByReason() {
+        Product product = createProduct();
+        Store store = createStore();
+        double before = rejections("DUPLICATE");
+
+        assertEquals(200, createAssociation(product.id, store.id));
+        assertEquals(409, createAssociation(product.id, store.id));
+
+        assertEquals(before + 1, rejections("DUPLICATE"));
+    }
+
+    private static double rejections(String reason) {
+        // the counter only exists after the first rejection
+        return find(scrape(), "fulfilment_rejections_total", "mode=\"single\"", "reason=\"" + reason + "\"")
+                .orElse(0);
+    }
+
+    @Test
+    void shouldTimeUseCasesLookupsAndRepositories() {
+        // rejected by the location lookup, the use case is timed either way
+        int status = given()
+                .contentType(ContentType.JSON)
+                .body("{\"businessUnitCode\":\"METRICS-001\",\"location\":\"UNKNOWN-001\",\"capacity\":10,\"stock\":1}")
+                .when().post("/warehouse")
+                .then()
+                .extract().statusCode();
+        assertTrue(status >= 400, "status " + status);
+
+        String scrape = scrape();
+        assertTrue(sample(scrape, "warehouse_usecase_seconds_count",
+                "class=\"com.fulfilment.application.monolith.warehouses.domain.usecases.CreateWarehouseUseCase\"",
+                "method=\"create\"") >= 1);
+        assertTrue(sample(scrape, "location_lookup_seconds_count", "method=\"resolveByIdentifier\"") >= 1);
+        assertTrue(sample(scrape, "warehouse_repository_seconds_count", "method=\"findByBusinessUnitCode\"") >= 1);
+    }
+
+    @Test
+    void shouldRecordStatementsPerRequest() {
+        Store store = createStore();
+
+        given()
+                .when().get("/fulfillment/store/" + store.id)
+                .then()
+                .statusCode(200);
+
+        String scrape = scrape();
+        String[] labels = {"class=\"com.fulfilment.application.monolith.fulfilment.FulfilmentResource\"",
+                "method=\"getStoreAssociations\""};
+        assertTrue(sample(scrape, "http_server_db_statements_count", labels) >= 1);
+        // the store may come from the second-level cache, the page query cannot
+        assertTrue(sample(scrape, "http_server_db_statements_sum", labels) >= 1);
+    }
+}
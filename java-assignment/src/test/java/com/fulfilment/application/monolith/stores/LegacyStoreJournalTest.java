@@ -0,0 +1,299 @@
+package com.fulfilment.application.monolith.stores;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fulfilment.application.monolith.stores.LegacyStoreJournalReader.Entry;
+import com.fulfilment.application.monolith.stores.LegacyStoreJournalReader.Position;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LegacyStoreJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private LegacyStoreJournal open(long segmentBytes) {
+        LegacyStoreJournal journal = new LegacyStoreJournal(directory, segmentBytes);
+        journal.open();
+        return journal;
+    }
+
+    private List<String> readAll() throws IOException {
+        List<String> payloads = new ArrayList<>();
+        LegacyStoreJournalReader reader = new LegacyStoreJournalReader(directory);
+        Position position = Position.START;
+        List<Entry> entries;
+        while (!(entries = reader.read(position, 7)).isEmpty()) {
+            entries.forEach(entry -> payloads.add(entry.payload()));
+            position = entries.get(entries.size() - 1).next();
+        }
+        return payloads;
+    }
+
+    @Test
+    void shouldReadBackAppendedRecordsInOrder() throws IOException {
+        LegacyStoreJournal journal = open(1024 * 1024);
+        assertEquals(1, journal.append("first"));
+        assertEquals(2, journal.append("second, with ünïcode"));
+        journal.sync();
+
+        assertEquals(List.of("first", "second, with ünïcode"), readAll());
+        journal.close();
+    }
+
+    @Test
+    void shouldResumeFromTheNextPosition() throws IOException {
+        LegacyStoreJournal journal = open(1024 * 1024);
+        journal.append("a");
+        journal.append("b");
+        journal.append("c");
+        journal.sync();
+        LegacyStoreJournalReader reader = new LegacyStoreJournalReader(directory);
+
+        List<Entry> first = reader.read(Position.START, 2);
+        List<Entry> rest = reader.read(first.get(1).next(), 10);
+
+        assertEquals(List.of("a", "b"), first.stream().map(Entry::payload).toList());
+        assertEquals(List.of("c"), rest.stream().map(Entry::payload).toList());
+        journal.close();
+    }
+
+    @Test
+    void shouldRotateToANewSegmentWhenFull() throws IOException {
+        LegacyStoreJournal journal = open(64);
+        List<String> records = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            records.add("record-" + i);
+            journal.append(records.get(i));
+        }
+        journal.sync();
+
+        assertTrue(journal.segment() > 1);
+        assertTrue(LegacyStoreJournalReader.segments(directory).size() > 1);
+        for (long segment : LegacyStoreJournalReader.segments(directory)) {
+            assertTrue(Files.size(LegacyStoreJournal.segmentPath(directory, segment)) <= 64);
+        }
+        assertEquals(records, readAll());
+        journal.close();
+    }
+
+    @Test
+    void shouldCutOffATornRecordOnReopen() throws IOException {
+        LegacyStoreJournal journal = open(1024 * 1024);
+        journal.append("kept");
+        journal.close();
+        // a crash in the middle of the next record: its header and part of the payload
+        try (FileChannel channel = FileChannel.open(LegacyStoreJournal.segmentPath(directory, 1),
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 40, 1, 2, 3, 4, 'x'}));
+        }
+        assertEquals(List.of("kept"), readAll());
+
+        journal = open(1024 * 1024);
+        journal.append("after");
+        journal.sync();
+
+        assertEquals(List.of("kept", "after"), readAll());
+        journal.close();
+    }
+
+    @Test
+    void shouldReadFramesAppendedAfterAFailedWrite() throws IOException {
+        AtomicBoolean failNextWrite = new AtomicBoolean();
+        LegacyStoreJournal journal = new LegacyStoreJournal(directory, 1024 * 1024) {
+            @Override
+            FileChannel openSegment(long segment, StandardOpenOption create) throws IOException {
+                return new TearingChannel(super.openSegment(segment, create), failNextWrite);
+            }
+        };
+        journal.open();
+        journal.append("before");
+        failNextWrite.set(true);
+
+        assertThrows(UncheckedIOException.class, () -> journal.append("torn"));
+        journal.append("after-1");
+        journal.append("after-2");
+        journal.sync();
+
+        assertEquals(List.of("before", "after-1", "after-2"), readAll());
+        journal.close();
+    }
+
+    @Test
+    void shouldContinueInTheLastSegmentOnReopen() throws IOException {
+        LegacyStoreJournal journal = open(64);
+        for (int i = 0; i < 10; i++) {
+            journal.append("record-" + i);
+        }
+        long segment = journal.segment();
+        journal.close();
+
+        journal = open(64);
+        assertEquals(segment, journal.segment());
+        // append tickets count per process, not records in the journal
+        assertEquals(1, journal.append("record-10"));
+        journal.close();
+
+        List<String> payloads = readAll();
+        assertEquals(11, payloads.size());
+        assertEquals("record-10", payloads.get(10));
+    }
+
+    @Test
+    void shouldKeepEveryRecordWithConcurrentAppendsAndSyncs() throws Exception {
+        LegacyStoreJournal journal = open(4096);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        long ticket = journal.append(thread + "-" + i);
+                        if (i % 20 == 0) {
+                            journal.sync(ticket);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        journal.sync();
+
+        List<String> payloads = readAll();
+        assertEquals(1600, payloads.size());
+        Set<String> distinct = new HashSet<>(payloads);
+        assertEquals(1600, distinct.size());
+        assertTrue(distinct.contains("7-199"));
+        journal.close();
+    }
+
+    /**
+     * Writes only the header of the next frame and then fails, like a write hitting a full disk.
+     */
+    private static final class TearingChannel extends FileChannel {
+
+        private final FileChannel delegate;
+        private final AtomicBoolean failNextWrite;
+
+        TearingChannel(FileChannel delegate, AtomicBoolean failNextWrite) {
+            this.delegate = delegate;
+            this.failNextWrite = failNextWrite;
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            if (failNextWrite.getAndSet(false)) {
+                delegate.write(srcs[offset]);
+                throw new IOException("No space left on device");
+            }
+            return delegate.write(srcs, offset, length);
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return delegate.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return delegate.read(dsts, offset, length);
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            return delegate.write(src);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return delegate.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            delegate.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return delegate.size();
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            delegate.truncate(size);
+            return this;
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            delegate.force(metaData);
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return delegate.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            return delegate.transferFrom(src, position, count);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return delegate.read(dst, position);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            return delegate.write(src, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return delegate.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return delegate.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return delegate.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.fulfilment.application.monolith.stores;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fulfilment.application.monolith.stores.LegacyStoreJournalReader.Entry;
+import com.fulfilment.application.monolith.stores.LegacyStoreJournalReader.Position;
+import com.fulfilment.application.monolith.stores.LegacyStoreManagerGateway.Change;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+class LegacyStoreManagerGatewayTest {
+
+    @Inject
+    LegacyStoreManagerGateway gateway;
+
+    @Inject
+    LegacyStoreJournal journal;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    private List<Change> changes() throws Exception {
+        List<Change> changes = new ArrayList<>();
+        LegacyStoreJournalReader reader = new LegacyStoreJournalReader(journal.directory());
+        Position position = Position.START;
+        List<Entry> entries;
+        while (!(entries = reader.read(position, 100)).isEmpty()) {
+            for (Entry entry : entries) {
+                changes.add(objectMapper.readValue(entry.payload(), Change.class));
+            }
+            position = entries.get(entries.size() - 1).next();
+        }
+        return changes;
+    }
+
+    @Test
+    void shouldWriteChangesToTheJournal() throws Exception {
+        Store store = new Store("JOURNAL-" + UUID.randomUUID().toString().substring(0, 8));
+        store.id = 4242L;
+        store.quantityProductsInStock = 12;
+        String createKey = UUID.randomUUID().toString();
+        String updateKey = UUID.randomUUID().toString();
+
+        gateway.createStoreOnLegacySystem(store, createKey);
+        store.quantityProductsInStock = 13;
+        gateway.updateStoreOnLegacySystem(store, updateKey);
+        gateway.flush();
+
+        List<Change> changes = changes().stream()
+                .filter(change -> store.name.equals(change.name()))
+                .toList();
+        assertEquals(List.of(
+                new Change("Store created.", createKey, 4242L, store.name, 12),
+                new Change("Store updated.", updateKey, 4242L, store.name, 13)), changes);
+    }
+}
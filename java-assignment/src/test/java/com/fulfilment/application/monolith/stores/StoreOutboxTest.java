@@ -0,0 +1,290 @@
+package com.fulfilment.application.monolith.stores;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+@QuarkusTest
+class StoreOutboxTest {
+
+    @InjectMock
+    LegacyStoreManagerGateway legacyStoreManagerGateway;
+
+    @Inject
+    StoreOutbox outbox;
+
+    @Inject
+    StoreOutboxDispatcher dispatcher;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "store.outbox.max-attempts")
+    int maxAttempts;
+
+    private static String uniqueName() {
+        return "OUTBOX-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    private static long createStore(String name) {
+        return given()
+                .contentType(ContentType.JSON)
+                .body("{\"name\":\"" + name + "\",\"quantityProductsInStock\":5}")
+                .when().post("/store")
+                .then()
+                .statusCode(201)
+                .extract().jsonPath().getLong("id");
+    }
+
+    private static void updateStore(long id, String name, int quantity) {
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"name\":\"" + name + "\",\"quantityProductsInStock\":" + quantity + "}")
+                .when().put("/store/" + id)
+                .then()
+                .statusCode(200);
+    }
+
+    private List<StoreOutboxEvent> events(long storeId) {
+        return QuarkusTransaction.requiringNew().call(
+                () -> outbox.list("storeId = ?1 ORDER BY id", storeId));
+    }
+
+    // makes the pending events of the store due right away
+    private void makeDue(long storeId) {
+        QuarkusTransaction.requiringNew().run(() -> outbox.update(
+                "nextAttemptAt = ?1 WHERE storeId = ?2 AND dispatchedAt IS NULL",
+                LocalDateTime.now().minusSeconds(1), storeId));
+    }
+
+    private void drain() {
+        while (dispatcher.dispatch() > 0) {
+            // events of other tests are sent to the mock as well
+        }
+    }
+
+    private static Store named(String name) {
+        return argThat(store -> store != null && name.equals(store.name));
+    }
+
+    @Test
+    void shouldRecordChangesWithoutCallingTheLegacySystem() {
+        String name = uniqueName();
+        long id = createStore(name);
+        updateStore(id, name, 7);
+
+        List<StoreOutboxEvent> events = events(id);
+        assertEquals(2, events.size());
+        assertEquals(StoreOutboxEvent.Type.CREATED, events.get(0).type);
+        assertEquals(5, events.get(0).quantityProductsInStock);
+        assertEquals(StoreOutboxEvent.Type.UPDATED, events.get(1).type);
+        assertEquals(7, events.get(1).quantityProductsInStock);
+        assertNotEquals(events.get(0).idempotencyKey, events.get(1).idempotencyKey);
+        assertTrue(events.stream().allMatch(event -> event.dispatchedAt == null));
+
+        verifyNoInteractions(legacyStoreManagerGateway);
+    }
+
+    @Test
+    void shouldNotRecordRejectedChanges() {
+        long id = createStore(uniqueName());
+
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"quantityProductsInStock\":3}")
+                .when().put("/store/" + id)
+                .then()
+                .statusCode(422);
+
+        assertEquals(1, events(id).size());
+    }
+
+    @Test
+    void shouldSendEventsInOrderWithTheirKeys() {
+        String name = uniqueName();
+        long id = createStore(name);
+        updateStore(id, name, 9);
+        List<StoreOutboxEvent> recorded = events(id);
+
+        drain();
+
+        InOrder inOrder = inOrder(legacyStoreManagerGateway);
+        inOrder.verify(legacyStoreManagerGateway)
+                .createStoreOnLegacySystem(named(name), eq(recorded.get(0).idempotencyKey));
+        inOrder.verify(legacyStoreManagerGateway)
+                .updateStoreOnLegacySystem(named(name), eq(recorded.get(1).idempotencyKey));
+
+        List<StoreOutboxEvent> events = events(id);
+        assertTrue(events.stream().allMatch(event -> event.dispatchedAt != null && event.attempts == 1));
+    }
+
+    @Test
+    void shouldCountSendsOnlyOnceTheBatchIsCommitted() {
+        drain();
+        createStore(uniqueName());
+        double sent = meterRegistry.counter(StoreOutboxDispatcher.SENT, "type", "CREATED").count();
+
+        doThrow(new UncheckedIOException(new IOException("sync failed")))
+                .doNothing()
+                .when(legacyStoreManagerGateway).flush();
+
+        assertThrows(UncheckedIOException.class, () -> dispatcher.dispatch());
+        assertEquals(sent, meterRegistry.counter(StoreOutboxDispatcher.SENT, "type", "CREATED").count());
+
+        drain();
+        assertTrue(meterRegistry.counter(StoreOutboxDispatcher.SENT, "type", "CREATED").count() > sent);
+    }
+
+    @Test
+    void shouldRetryAFailedSendAfterBackoffAndKeepTheStoreOrder() {
+        String name = uniqueName();
+        doThrow(new UncheckedIOException(new IOException("legacy system down")))
+                .when(legacyStoreManagerGateway).createStoreOnLegacySystem(named(name), any());
+        long id = createStore(name);
+        updateStore(id, name, 8);
+
+        drain();
+
+        List<StoreOutboxEvent> events = events(id);
+        assertEquals(1, events.get(0).attempts);
+        assertNull(events.get(0).dispatchedAt);
+        assertTrue(events.get(0).lastError.contains("legacy system down"));
+        assertTrue(events.get(0).nextAttemptAt.isAfter(LocalDateTime.now()));
+        // the update waits for the create
+        assertEquals(0, events.get(1).attempts);
+        verify(legacyStoreManagerGateway, never()).updateStoreOnLegacySystem(named(name), any());
+
+        // not due yet
+        drain();
+        verify(legacyStoreManagerGateway, times(1)).createStoreOnLegacySystem(named(name), any());
+
+        doNothing().when(legacyStoreManagerGateway).createStoreOnLegacySystem(named(name), any());
+        makeDue(id);
+        drain();
+
+        InOrder inOrder = inOrder(legacyStoreManagerGateway);
+        inOrder.verify(legacyStoreManagerGateway, times(2)).createStoreOnLegacySystem(named(name), any());
+        inOrder.verify(legacyStoreManagerGateway).updateStoreOnLegacySystem(named(name), any());
+        assertTrue(events(id).stream().allMatch(event -> event.dispatchedAt != null));
+    }
+
+    @Test
+    void shouldGiveUpAfterMaxAttemptsAndReleaseLaterEvents() {
+        String name = uniqueName();
+        doThrow(new UncheckedIOException(new IOException("rejected")))
+                .when(legacyStoreManagerGateway).createStoreOnLegacySystem(named(name), any());
+        long id = createStore(name);
+        updateStore(id, name, 4);
+        QuarkusTransaction.requiringNew().run(() -> outbox.update(
+                "attempts = ?1 WHERE storeId = ?2 AND type = ?3",
+                maxAttempts - 1, id, StoreOutboxEvent.Type.CREATED));
+
+        drain();
+        makeDue(id);
+        drain();
+
+        List<StoreOutboxEvent> events = events(id);
+        assertEquals(maxAttempts, events.get(0).attempts);
+        assertNull(events.get(0).dispatchedAt);
+        verify(legacyStoreManagerGateway, times(1)).createStoreOnLegacySystem(named(name), any());
+        assertNotNull(events.get(1).dispatchedAt);
+    }
+
+    @Test
+    void shouldSendPendingUpdatesOfAStoreAsTheLatestOne() {
+        String name = uniqueName();
+        long id = createStore(name);
+        drain();
+        updateStore(id, name, 1);
+        updateStore(id, name, 2);
+        updateStore(id, name, 3);
+        double coalesced = meterRegistry.counter(StoreOutboxDispatcher.COALESCED).count();
+
+        drain();
+
+        List<StoreOutboxEvent> events = events(id);
+        StoreOutboxEvent latest = events.get(3);
+        verify(legacyStoreManagerGateway).updateStoreOnLegacySystem(
+                argThat(store -> name.equals(store.name) && store.quantityProductsInStock == 3),
+                eq(latest.idempotencyKey));
+        verify(legacyStoreManagerGateway, times(1)).updateStoreOnLegacySystem(named(name), any());
+        assertTrue(events.stream().allMatch(event -> event.dispatchedAt != null));
+        assertEquals(latest.id, events.get(1).coalescedInto);
+        assertEquals(latest.id, events.get(2).coalescedInto);
+        assertNull(latest.coalescedInto);
+        assertEquals(coalesced + 2, meterRegistry.counter(StoreOutboxDispatcher.COALESCED).count());
+    }
+
+    @Test
+    void shouldCountCoalescedUpdatesOnlyOnceTheBatchIsCommitted() {
+        String name = uniqueName();
+        long id = createStore(name);
+        drain();
+        updateStore(id, name, 1);
+        updateStore(id, name, 2);
+        updateStore(id, name, 3);
+        double coalesced = meterRegistry.counter(StoreOutboxDispatcher.COALESCED).count();
+
+        doThrow(new UncheckedIOException(new IOException("sync failed")))
+                .doNothing()
+                .when(legacyStoreManagerGateway).flush();
+
+        assertThrows(UncheckedIOException.class, () -> dispatcher.dispatch());
+        assertEquals(coalesced, meterRegistry.counter(StoreOutboxDispatcher.COALESCED).count());
+
+        drain();
+        assertEquals(coalesced + 2, meterRegistry.counter(StoreOutboxDispatcher.COALESCED).count());
+    }
+
+    @Test
+    void shouldCoalesceUpdatesRecordedWhileRetrying() {
+        String name = uniqueName();
+        long id = createStore(name);
+        drain();
+        doThrow(new UncheckedIOException(new IOException("legacy system down")))
+                .when(legacyStoreManagerGateway).updateStoreOnLegacySystem(named(name), any());
+        updateStore(id, name, 1);
+        drain();
+
+        doNothing().when(legacyStoreManagerGateway).updateStoreOnLegacySystem(named(name), any());
+        updateStore(id, name, 2);
+        makeDue(id);
+        drain();
+
+        verify(legacyStoreManagerGateway, times(2)).updateStoreOnLegacySystem(named(name), any());
+        verify(legacyStoreManagerGateway).updateStoreOnLegacySystem(
+                argThat(store -> name.equals(store.name) && store.quantityProductsInStock == 2), any());
+        List<StoreOutboxEvent> events = events(id);
+        assertEquals(2, events.get(1).attempts);
+        assertEquals(events.get(2).id, events.get(1).coalescedInto);
+        assertTrue(events.stream().allMatch(event -> event.dispatchedAt != null));
+    }
+
+    @Test
+    void shouldDoubleTheBackoffUpToTheMaximum() {
+        assertEquals(Duration.ofSeconds(1), dispatcher.backoff(1));
+        assertEquals(Duration.ofSeconds(2), dispatcher.backoff(2));
+        assertEquals(Duration.ofSeconds(256), dispatcher.backoff(9));
+        assertEquals(Duration.ofMinutes(5), dispatcher.backoff(10));
+        assertEquals(Duration.ofMinutes(5), dispatcher.backoff(100));
+    }
+}
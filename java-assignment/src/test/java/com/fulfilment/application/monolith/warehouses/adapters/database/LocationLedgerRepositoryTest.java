@@ -0,0 +1,65 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationOccupancy;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.transaction.TransactionalException;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@QuarkusTest
+class LocationLedgerRepositoryTest {
+
+    @Inject
+    LocationLedgerRepository ledger;
+
+    @Inject
+    WarehouseRepository warehouseRepository;
+
+    @Test
+    void shouldSeedFromActiveWarehousesAndKeepRunningTotals() {
+        String location = "LEDGER-" + UUID.randomUUID().toString().substring(0, 8);
+        QuarkusTransaction.requiringNew().run(() -> {
+            warehouseRepository.create(new Warehouse("L-" + location + "-1", location, 30, 0, null));
+            warehouseRepository.create(new Warehouse("L-" + location + "-2", location, 20, 0, null));
+        });
+
+        LocationOccupancy seeded = QuarkusTransaction.requiringNew().call(() -> ledger.lock(location));
+        assertEquals(2, seeded.numberOfWarehouses);
+        assertEquals(50, seeded.totalCapacity);
+
+        QuarkusTransaction.requiringNew().run(() -> {
+            ledger.lock(location);
+            ledger.adjust(location, 1, 40);
+        });
+
+        LocationOccupancy adjusted = QuarkusTransaction.requiringNew().call(() -> ledger.lock(location));
+        assertEquals(3, adjusted.numberOfWarehouses);
+        assertEquals(90, adjusted.totalCapacity);
+    }
+
+    @Test
+    void shouldDiscardAdjustmentOnRollback() {
+        String location = "LEDGER-" + UUID.randomUUID().toString().substring(0, 8);
+
+        assertThrows(IllegalStateException.class, () -> QuarkusTransaction.requiringNew().run(() -> {
+            ledger.lock(location);
+            ledger.adjust(location, 1, 40);
+            throw new IllegalStateException("create failed after the ledger was adjusted");
+        }));
+
+        LocationOccupancy occupancy = QuarkusTransaction.requiringNew().call(() -> ledger.lock(location));
+        assertEquals(0, occupancy.numberOfWarehouses);
+        assertEquals(0, occupancy.totalCapacity);
+    }
+
+    @Test
+    void shouldRequireTransaction() {
+        assertThrows(TransactionalException.class, () -> ledger.lock("LEDGER-NO-TX"));
+    }
+}
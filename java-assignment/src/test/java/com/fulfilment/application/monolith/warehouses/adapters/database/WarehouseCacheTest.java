@@ -0,0 +1,141 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.stores.Store;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Second-level and query cache behaviour of the warehouse lookups. Every read runs in its own
+ * transaction, so hits come from the shared cache and not from the persistence context.
+ */
+@QuarkusTest
+class WarehouseCacheTest {
+
+    @Inject
+    WarehouseRepository repository;
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = sessionFactory.getStatistics();
+        statistics.clear();
+    }
+
+    private Warehouse lookup(String businessUnitCode) {
+        return QuarkusTransaction.requiringNew()
+                .call(() -> repository.findByBusinessUnitCode(businessUnitCode));
+    }
+
+    private CacheRegionStatistics region(Class<?> entity) {
+        return statistics.getDomainDataRegionStatistics(entity.getName());
+    }
+
+    @Test
+    void shouldServeRepeatedLookupsFromCache() {
+        repository.create(new Warehouse("CACHE-001", "Utrecht", 100, 10, null));
+        // results read in the same millisecond as the last write to the table are not reused,
+        // so look up until one is served from the cache, within a bounded time
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (statistics.getQueryCacheHitCount() == 0) {
+            assertTrue(System.nanoTime() < deadline, "lookup never served from the query cache");
+            lookup("CACHE-001");
+        }
+
+        long queries = statistics.getQueryExecutionCount();
+        Warehouse cached = lookup("CACHE-001");
+
+        assertEquals("Utrecht", cached.location);
+        assertEquals(queries, statistics.getQueryExecutionCount());
+    }
+
+    @Test
+    void shouldServeActiveByIdFromEntityCache() {
+        Warehouse created = new Warehouse("CACHE-002", "Utrecht", 100, 10, null);
+        repository.create(created);
+
+        QuarkusTransaction.requiringNew().call(() -> repository.findActiveById(created.id));
+        long hits = region(DbWarehouse.class).getHitCount();
+        Warehouse cached = QuarkusTransaction.requiringNew().call(() -> repository.findActiveById(created.id));
+
+        assertEquals("CACHE-002", cached.businessUnitCode);
+        assertEquals(hits + 1, region(DbWarehouse.class).getHitCount());
+    }
+
+    @Test
+    void shouldSeeCreateAfterCachedMiss() {
+        assertNull(lookup("CACHE-003"));
+
+        repository.create(new Warehouse("CACHE-003", "Utrecht", 100, 10, null));
+
+        assertNotNull(lookup("CACHE-003"));
+    }
+
+    @Test
+    void shouldSeeArchiveAfterCachedLookup() {
+        repository.create(new Warehouse("CACHE-004", "Utrecht", 100, 10, null));
+        Warehouse current = lookup("CACHE-004");
+
+        current.archive();
+        repository.update(current);
+
+        assertNull(lookup("CACHE-004"));
+        assertNull(QuarkusTransaction.requiringNew().call(() -> repository.findActiveById(current.id)));
+    }
+
+    @Test
+    void shouldSeeReplaceAfterCachedLookup() {
+        repository.create(new Warehouse("CACHE-005", "Utrecht", 100, 10, null));
+        Warehouse current = lookup("CACHE-005");
+
+        current.archive();
+        repository.replace(current, new Warehouse("CACHE-005", "Leiden", 120, 10, null));
+
+        Warehouse active = lookup("CACHE-005");
+        assertEquals("Leiden", active.location);
+        assertEquals(120, active.capacity);
+    }
+
+    @Test
+    void shouldServeStoreByIdFromEntityCache() {
+        Long id = QuarkusTransaction.requiringNew().call(() -> {
+            Store store = new Store("CACHE-STORE");
+            store.persist();
+            return store.id;
+        });
+
+        QuarkusTransaction.requiringNew().call(() -> Store.findById(id));
+        long hits = region(Store.class).getHitCount();
+        QuarkusTransaction.requiringNew().call(() -> Store.findById(id));
+
+        assertEquals(hits + 1, region(Store.class).getHitCount());
+    }
+
+    @Test
+    void shouldPublishCacheMetrics() {
+        lookup("CACHE-006");
+
+        given()
+                .when().get("/q/metrics")
+                .then()
+                .statusCode(200)
+                .body(containsString("hibernate_second_level_cache_requests"),
+                        containsString("hibernate_cache_query_requests"));
+    }
+}
@@ -1,13 +1,19 @@
 package com.fulfilment.application.monolith.warehouses.adapters.database;
 
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationOccupancy;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseSnapshot;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import io.quarkus.test.junit.QuarkusTest;
 import jakarta.inject.Inject;
+import jakarta.persistence.EntityExistsException;
+import jakarta.persistence.OptimisticLockException;
 import jakarta.transaction.Transactional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -76,6 +82,54 @@ class WarehouseRepositoryTest {
         assertEquals("BU200", result.get(0).businessUnitCode);
     }
 
+    @Test
+    @Transactional
+    void shouldListActiveWarehousesAsSnapshots() {
+
+        Warehouse active = new Warehouse("BU210", "Utrecht", 120, 30, null);
+        repository.create(active);
+
+        Warehouse archived = new Warehouse("BU211", "Leiden", 90, 10, null);
+        repository.create(archived);
+        archived.archive();
+        repository.update(archived);
+
+        List<WarehouseSnapshot> result = new ArrayList<>();
+        repository.forEachActive(null, 0L, Integer.MAX_VALUE, result::add);
+
+        assertEquals(1, result.size());
+        WarehouseSnapshot snapshot = result.get(0);
+        assertEquals(active.id, snapshot.id());
+        assertEquals("BU210", snapshot.businessUnitCode());
+        assertEquals("Utrecht", snapshot.location());
+        assertEquals(120, snapshot.capacity());
+        assertEquals(30, snapshot.stock());
+    }
+
+    @Test
+    @Transactional
+    void shouldStreamActiveWarehousesByLocationAfterCursor() {
+
+        Warehouse first = new Warehouse("BU220", "Utrecht", 100, 10, null);
+        repository.create(first);
+        repository.create(new Warehouse("BU221", "Leiden", 100, 10, null));
+        repository.create(new Warehouse("BU222", "Utrecht", 100, 10, null));
+        repository.create(new Warehouse("BU223", "Utrecht", 100, 10, null));
+
+        Warehouse archived = new Warehouse("BU224", "Utrecht", 100, 10, null);
+        repository.create(archived);
+        archived.archive();
+        repository.update(archived);
+
+        List<String> page = new ArrayList<>();
+        repository.forEachActive("Utrecht", first.id, 10, snapshot -> page.add(snapshot.businessUnitCode()));
+        assertEquals(List.of("BU222", "BU223"), page);
+
+        List<String> limited = new ArrayList<>();
+        repository.forEachActive(null, 0L, 2, snapshot -> limited.add(snapshot.businessUnitCode()));
+        assertEquals(List.of("BU220", "BU221"), limited);
+    }
+
     @Test
     @Transactional
     void shouldUpdateWarehouseSuccessfully() {
@@ -113,6 +167,101 @@ class WarehouseRepositoryTest {
         assertTrue(result.isEmpty());
     }
 
+    @Test
+    @Transactional
+    void shouldCountActiveWarehousesAndCapacityPerLocation() {
+
+        repository.create(new Warehouse("BU600", "Utrecht", 100, 10, null));
+        repository.create(new Warehouse("BU601", "Utrecht", 40, 10, null));
+        repository.create(new Warehouse("BU602", "Leiden", 70, 10, null));
+
+        Warehouse archived = new Warehouse("BU603", "Utrecht", 90, 10, null);
+        repository.create(archived);
+        archived.archive();
+        repository.update(archived);
+
+        LocationOccupancy occupancy = repository.occupancyOf("Utrecht");
+
+        assertEquals(2, occupancy.numberOfWarehouses);
+        assertEquals(140, occupancy.totalCapacity);
+
+        LocationOccupancy empty = repository.occupancyOf("Nowhere");
+        assertEquals(0, empty.numberOfWarehouses);
+        assertEquals(0, empty.totalCapacity);
+    }
+
+    @Test
+    @Transactional
+    void shouldArchiveAndInsertOnReplace() {
+
+        repository.create(new Warehouse("BU700", "Utrecht", 100, 10, null));
+        Warehouse current = repository.findByBusinessUnitCode("BU700");
+        assertNotNull(current.version);
+
+        current.archive();
+        repository.replace(current, new Warehouse("BU700", "Leiden", 120, 10, null));
+
+        Warehouse active = repository.findByBusinessUnitCode("BU700");
+        assertEquals("Leiden", active.location);
+        assertNotEquals(current.id, active.id);
+        assertEquals(1, repository.getAll().size());
+        assertEquals(2, repository.count("businessUnitCode", "BU700"));
+    }
+
+    @Test
+    void shouldRejectReplaceOfStaleVersion() {
+
+        repository.create(new Warehouse("BU701", "Utrecht", 100, 10, null));
+        Warehouse current = QuarkusTransaction.requiringNew()
+                .call(() -> repository.findByBusinessUnitCode("BU701"));
+
+        // another replace committed after this copy was read
+        current.version = current.version + 1;
+        current.archive();
+
+        // runs in its own transaction, which is rolled back
+        assertThrows(OptimisticLockException.class,
+                () -> repository.replace(current, new Warehouse("BU701", "Leiden", 120, 10, null)));
+
+        Warehouse active = QuarkusTransaction.requiringNew()
+                .call(() -> repository.findByBusinessUnitCode("BU701"));
+        assertEquals("Utrecht", active.location);
+        assertEquals(1L, QuarkusTransaction.requiringNew()
+                .call(() -> repository.count("businessUnitCode", "BU701")));
+    }
+
+    @Test
+    @Transactional
+    void shouldUpdateTheRowItWasReadFrom() {
+
+        Warehouse first = new Warehouse("BU800", "Utrecht", 100, 10, null);
+        repository.create(first);
+        first.archive();
+        repository.update(first);
+
+        Warehouse second = new Warehouse("BU800", "Leiden", 100, 10, null);
+        repository.create(second);
+        assertNotEquals(first.id, second.id);
+
+        second.stock = 20;
+        repository.update(second);
+
+        assertEquals(20, repository.findById(second.id).stock);
+        assertEquals(10, repository.findById(first.id).stock);
+    }
+
+    @Test
+    void shouldAllowOneActiveWarehousePerBusinessUnitCode() {
+
+        repository.create(new Warehouse("BU801", "Utrecht", 100, 10, null));
+
+        // reported by create itself, so a caller that lost a race can answer with a conflict
+        assertThrows(EntityExistsException.class,
+                () -> QuarkusTransaction.requiringNew().run(() -> {
+                    repository.create(new Warehouse("BU801", "Leiden", 100, 10, null));
+                }));
+    }
+
     @Test
     void shouldThrowExceptionOnHardDelete() {
 
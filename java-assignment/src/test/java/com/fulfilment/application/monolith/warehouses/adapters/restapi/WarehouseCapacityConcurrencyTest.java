@@ -0,0 +1,122 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationOccupancy;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import com.warehouse.api.beans.Warehouse;
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Fires concurrent creates at one location and checks that the summed capacity limit holds
+ * and that a business unit code is taken once.
+ */
+@QuarkusTest
+class WarehouseCapacityConcurrencyTest {
+
+    private static final int REQUESTS = 10;
+
+    @InjectMock
+    LocationResolver locationResolver;
+
+    @Inject
+    WarehouseRepository warehouseRepository;
+
+    @Test
+    void shouldNotExceedSummedCapacity() throws Exception {
+        String location = "CONC-" + UUID.randomUUID().toString().substring(0, 8);
+        // room for three warehouses of 30 by capacity, ten by count
+        when(locationResolver.resolveByIdentifier(anyString()))
+                .thenReturn(new Location(location, REQUESTS, 100));
+
+        List<Warehouse> warehouses = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            warehouses.add(warehouse(location + "-" + i, location));
+        }
+        List<Integer> statuses = postConcurrently(warehouses);
+
+        // all requests race to seed the ledger row of the new location; three fit, the rest are rejected
+        assertEquals(3, statuses.stream().filter(status -> status == 200).count(), "statuses " + statuses);
+        assertTrue(statuses.stream().allMatch(status -> status == 200 || status == 422),
+                "unexpected statuses " + statuses);
+
+        LocationOccupancy occupancy = warehouseRepository.occupancyOf(location);
+        assertEquals(3, occupancy.numberOfWarehouses);
+        assertEquals(90, occupancy.totalCapacity);
+    }
+
+    @Test
+    void shouldAnswerConcurrentCreatesOfOneBusinessUnitWithConflict() throws Exception {
+        String location = "DUP-" + UUID.randomUUID().toString().substring(0, 8);
+        when(locationResolver.resolveByIdentifier(anyString()))
+                .thenReturn(new Location(location, REQUESTS, 1000));
+
+        List<Warehouse> warehouses = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            warehouses.add(warehouse(location, location));
+        }
+        List<Integer> statuses = postConcurrently(warehouses);
+
+        // a request that saw the code taken is a 400, one that lost the race at the unique index a 409
+        assertEquals(1, statuses.stream().filter(status -> status == 200).count(), "statuses " + statuses);
+        assertTrue(statuses.stream().allMatch(status -> status == 200 || status == 400 || status == 409),
+                "unexpected statuses " + statuses);
+        assertEquals(1, warehouseRepository.occupancyOf(location).numberOfWarehouses);
+    }
+
+    private static Warehouse warehouse(String businessUnitCode, String location) {
+        Warehouse warehouse = new Warehouse();
+        warehouse.setBusinessUnitCode(businessUnitCode);
+        warehouse.setLocation(location);
+        warehouse.setCapacity(30);
+        warehouse.setStock(0);
+        return warehouse;
+    }
+
+    private static List<Integer> postConcurrently(List<Warehouse> warehouses) throws Exception {
+        List<Integer> statuses = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(warehouses.size());
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (Warehouse warehouse : warehouses) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return given()
+                            .contentType(ContentType.JSON)
+                            .body(warehouse)
+                            .when()
+                            .post("/warehouse")
+                            .then()
+                            .extract()
+                            .statusCode();
+                }));
+            }
+            start.countDown();
+            for (Future<Integer> future : futures) {
+                statuses.add(future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return statuses;
+    }
+}
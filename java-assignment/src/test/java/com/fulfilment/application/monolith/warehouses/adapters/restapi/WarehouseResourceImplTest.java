@@ -1,17 +1,26 @@
 package com.fulfilment.application.monolith.warehouses.adapters.restapi;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseSnapshot;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
 import com.fulfilment.application.monolith.warehouses.domain.usecases.ArchiveWarehouseUseCase;
 import com.fulfilment.application.monolith.warehouses.domain.usecases.CreateWarehouseUseCase;
 import com.fulfilment.application.monolith.warehouses.domain.usecases.ReplaceWarehouseUseCase;
+import jakarta.persistence.EntityExistsException;
 import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.StreamingOutput;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
-import java.util.List;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -30,6 +39,9 @@ class WarehouseResourceImplTest {
     @Mock
     ArchiveWarehouseUseCase archiveUseCase;
 
+    @Mock
+    LocationResolver locationResolver;
+
     @InjectMocks
     WarehouseResourceImpl resource;
 
@@ -38,6 +50,7 @@ class WarehouseResourceImplTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        resource.objectMapper = new ObjectMapper();
 
         domainWarehouse = new com.fulfilment.application.monolith.warehouses.domain.models.Warehouse();
         domainWarehouse.id = 1L;
@@ -47,16 +60,70 @@ class WarehouseResourceImplTest {
         domainWarehouse.stock = 50;
     }
 
+    @SuppressWarnings("unchecked")
+    private void stubActiveWarehouses(WarehouseSnapshot... snapshots) {
+        doAnswer(invocation -> {
+            Consumer<WarehouseSnapshot> action = invocation.getArgument(3);
+            for (WarehouseSnapshot snapshot : snapshots) {
+                action.accept(snapshot);
+            }
+            return null;
+        }).when(warehouseRepository).forEachActive(any(), anyLong(), anyInt(), any());
+    }
+
+    private String write(StreamingOutput output) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        output.write(bytes);
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
     @Test
-    void shouldListAllWarehousesUnits() {
+    void shouldListAllWarehousesUnits() throws IOException {
 
-        when(warehouseRepository.getAll()).thenReturn(List.of(domainWarehouse));
+        stubActiveWarehouses(new WarehouseSnapshot(1L, "WH001", "PUNE", 100, 50));
+
+        String json = write(resource.listAllWarehousesUnits(null, null, null, null));
+
+        assertEquals("[{\"id\":\"1\",\"businessUnitCode\":\"WH001\",\"location\":\"PUNE\","
+                + "\"capacity\":100,\"stock\":50}]", json);
+        verify(warehouseRepository).forEachActive(isNull(), eq(0L), eq(Integer.MAX_VALUE), any());
+        verify(warehouseRepository, never()).getAll();
+    }
+
+    @Test
+    void shouldPassFilterAndPageToRepository() throws IOException {
 
-        var result = resource.listAllWarehousesUnits();
+        stubActiveWarehouses(new WarehouseSnapshot(7L, "WH007", "PUNE", 100, 50));
 
-        assertEquals(1, result.size());
-        assertEquals("WH001", result.get(0).getBusinessUnitCode());
-        verify(warehouseRepository).getAll();
+        when(locationResolver.resolveByIdentifier("pune")).thenReturn(new Location("PUNE", 5, 500));
+
+        String json = write(resource.listAllWarehousesUnits("pune", 10, "5", "businessUnitCode, stock"));
+
+        // the id comes along with a limit, it is the cursor of the next page
+        assertEquals("[{\"id\":\"7\",\"businessUnitCode\":\"WH007\",\"stock\":50}]", json);
+        verify(warehouseRepository).forEachActive(eq("PUNE"), eq(5L), eq(10), any());
+    }
+
+    @Test
+    void shouldFilterByUnknownLocationAsGiven() throws IOException {
+
+        when(locationResolver.resolveByIdentifier("NOWHERE"))
+                .thenThrow(new IllegalArgumentException("Unknown location: NOWHERE"));
+
+        assertEquals("[]", write(resource.listAllWarehousesUnits("NOWHERE", null, null, null)));
+        verify(warehouseRepository).forEachActive(eq("NOWHERE"), eq(0L), eq(Integer.MAX_VALUE), any());
+    }
+
+    @Test
+    void shouldRejectInvalidListParameters() {
+
+        assertEquals(400, assertThrows(WebApplicationException.class,
+                () -> resource.listAllWarehousesUnits(null, 0, null, null)).getResponse().getStatus());
+        assertEquals(400, assertThrows(WebApplicationException.class,
+                () -> resource.listAllWarehousesUnits(null, null, "-1", null)).getResponse().getStatus());
+        assertEquals(400, assertThrows(WebApplicationException.class,
+                () -> resource.listAllWarehousesUnits(null, null, null, "capacity,owner")).getResponse().getStatus());
+        verifyNoInteractions(warehouseRepository);
     }
 
     @Test
@@ -74,6 +141,40 @@ class WarehouseResourceImplTest {
         verify(createUseCase).create(any());
     }
 
+    @Test
+    void shouldRejectWarehouseOverLocationLimits() {
+
+        var request = new com.warehouse.api.beans.Warehouse();
+        request.setBusinessUnitCode("WH001");
+        request.setLocation("PUNE");
+        request.setCapacity(100);
+        request.setStock(50);
+
+        doThrow(new IllegalStateException("Total capacity exceeds location limit"))
+                .when(createUseCase).create(any());
+        assertEquals(422, assertThrows(WebApplicationException.class,
+                () -> resource.createANewWarehouseUnit(request)).getResponse().getStatus());
+
+        doThrow(new IllegalArgumentException("Invalid location")).when(createUseCase).create(any());
+        assertEquals(400, assertThrows(WebApplicationException.class,
+                () -> resource.createANewWarehouseUnit(request)).getResponse().getStatus());
+    }
+
+    @Test
+    void shouldRejectConcurrentCreateOfSameBusinessUnitWithConflict() {
+
+        var request = new com.warehouse.api.beans.Warehouse();
+        request.setBusinessUnitCode("WH001");
+        request.setLocation("PUNE");
+        request.setCapacity(100);
+        request.setStock(50);
+
+        doThrow(new EntityExistsException("Business unit already exists: WH001"))
+                .when(createUseCase).create(any());
+        assertEquals(409, assertThrows(WebApplicationException.class,
+                () -> resource.createANewWarehouseUnit(request)).getResponse().getStatus());
+    }
+
     @Test
     void shouldGetWarehouseById() {
 
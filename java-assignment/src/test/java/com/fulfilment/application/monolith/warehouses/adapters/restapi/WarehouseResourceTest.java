@@ -6,14 +6,18 @@ import com.warehouse.api.beans.Warehouse;
 import io.quarkus.test.InjectMock;
 import io.quarkus.test.junit.QuarkusTest;
 import io.restassured.http.ContentType;
+import io.restassured.path.json.JsonPath;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.UUID;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
 
@@ -91,6 +95,130 @@ class WarehouseResourceTest {
                 .body("size()", greaterThanOrEqualTo(0));
     }
 
+    private void postWarehouse(String businessUnitCode, int capacity) {
+
+        Warehouse warehouse = new Warehouse();
+        warehouse.setBusinessUnitCode(businessUnitCode);
+        warehouse.setLocation(testLocation);
+        warehouse.setCapacity(capacity);
+        warehouse.setStock(10);
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(warehouse)
+                .when()
+                .post("/warehouse")
+                .then()
+                .statusCode(anyOf(is(200),is(201)));
+    }
+
+    @Test
+    void shouldListWarehousesOfOneLocationInPages() {
+
+        postWarehouse(testWarehouseCode + "-1", 50);
+        postWarehouse(testWarehouseCode + "-2", 60);
+        postWarehouse(testWarehouseCode + "-3", 70);
+
+        List<Warehouse> firstPage =
+                given()
+                        .queryParam("location", testLocation)
+                        .queryParam("limit", 2)
+                        .when()
+                        .get("/warehouse")
+                        .then()
+                        .statusCode(200)
+                        .extract()
+                        .body()
+                        .jsonPath()
+                        .getList(".", Warehouse.class);
+
+        assertEquals(List.of(testWarehouseCode + "-1", testWarehouseCode + "-2"),
+                firstPage.stream().map(Warehouse::getBusinessUnitCode).toList());
+
+        given()
+                .queryParam("location", testLocation)
+                .queryParam("limit", 2)
+                .queryParam("cursor", firstPage.get(1).getId())
+                .when()
+                .get("/warehouse")
+                .then()
+                .statusCode(200)
+                .body("size()", is(1))
+                .body("[0].businessUnitCode", equalTo(testWarehouseCode + "-3"))
+                .body("[0].capacity", equalTo(70));
+    }
+
+    @Test
+    void shouldListOnlySelectedFields() {
+
+        createWarehouse();
+
+        given()
+                .queryParam("location", testLocation)
+                .queryParam("fields", "id,stock")
+                .when()
+                .get("/warehouse")
+                .then()
+                .statusCode(200)
+                .body("size()", is(1))
+                .body("[0].id", equalTo(warehouseId))
+                .body("[0].stock", equalTo(10))
+                .body("[0]", not(hasKey("businessUnitCode")))
+                .body("[0]", not(hasKey("location")));
+    }
+
+    @Test
+    void shouldWalkPagesWhenOnlyLocationIsSelected() {
+
+        postWarehouse(testWarehouseCode + "-1", 50);
+        postWarehouse(testWarehouseCode + "-2", 60);
+        postWarehouse(testWarehouseCode + "-3", 70);
+
+        // location alone carries no cursor, so the id is added to paged listings
+        JsonPath firstPage =
+                given()
+                        .queryParam("location", testLocation)
+                        .queryParam("limit", 2)
+                        .queryParam("fields", "location")
+                        .when()
+                        .get("/warehouse")
+                        .then()
+                        .statusCode(200)
+                        .body("size()", is(2))
+                        .body("[0]", not(hasKey("businessUnitCode")))
+                        .extract()
+                        .jsonPath();
+        assertEquals(List.of(testLocation, testLocation), firstPage.getList("location"));
+
+        JsonPath secondPage =
+                given()
+                        .queryParam("location", testLocation)
+                        .queryParam("limit", 2)
+                        .queryParam("fields", "location")
+                        .queryParam("cursor", firstPage.getString("[1].id"))
+                        .when()
+                        .get("/warehouse")
+                        .then()
+                        .statusCode(200)
+                        .body("size()", is(1))
+                        .body("[0].location", equalTo(testLocation))
+                        .extract()
+                        .jsonPath();
+
+        List<String> ids = new ArrayList<>(firstPage.getList("id"));
+        ids.addAll(secondPage.getList("id"));
+        assertEquals(3, new HashSet<>(ids).size());
+    }
+
+    @Test
+    void shouldRejectInvalidListParameters() {
+
+        given().queryParam("limit", 0).when().get("/warehouse").then().statusCode(400);
+        given().queryParam("limit", 1001).when().get("/warehouse").then().statusCode(400);
+        given().queryParam("cursor", "abc").when().get("/warehouse").then().statusCode(400);
+        given().queryParam("fields", "id,secret").when().get("/warehouse").then().statusCode(400);
+    }
+
     @Test
     void shouldGetWarehouseById() {
 
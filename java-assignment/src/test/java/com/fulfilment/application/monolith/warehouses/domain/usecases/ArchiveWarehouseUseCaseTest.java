@@ -1,7 +1,9 @@
 package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationCapacityLedger;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import jakarta.persistence.OptimisticLockException;
 import jakarta.ws.rs.WebApplicationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,12 +18,15 @@ class ArchiveWarehouseUseCaseTest {
     @Mock
     WarehouseStore warehouseStore;
 
+    @Mock
+    LocationCapacityLedger capacityLedger;
+
     ArchiveWarehouseUseCase useCase;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        useCase = new ArchiveWarehouseUseCase(warehouseStore);
+        useCase = new ArchiveWarehouseUseCase(warehouseStore, capacityLedger);
     }
 
     @Test
@@ -37,6 +42,29 @@ class ArchiveWarehouseUseCaseTest {
 
         assertNotNull(existing.archivedAt);
         verify(warehouseStore).update(existing);
+        verify(warehouseStore, times(1)).findByBusinessUnitCode("BU1");
+        verify(capacityLedger).lock("Pune");
+        verify(capacityLedger).adjust("Pune", -1, -100);
+    }
+
+    @Test
+    void shouldThrow409IfArchivedConcurrently() {
+
+        Warehouse existing =
+                new Warehouse("BU1", "Pune", 100, 50, 1L);
+
+        when(warehouseStore.findByBusinessUnitCode("BU1"))
+                .thenReturn(existing);
+        // archived or replaced by someone else after it was read
+        doThrow(new OptimisticLockException())
+                .when(warehouseStore).update(existing);
+
+        WebApplicationException ex =
+                assertThrows(WebApplicationException.class,
+                        () -> useCase.archive(existing));
+
+        assertEquals(409, ex.getResponse().getStatus());
+        verify(capacityLedger, never()).adjust(anyString(), anyInt(), anyInt());
     }
 
     @Test
@@ -1,16 +1,14 @@
 package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationOccupancy;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationCapacityLedger;
 import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
-import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
-
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -18,13 +16,15 @@ class CreateWarehouseUseCaseTest {
 
     private WarehouseStore warehouseStore;
     private LocationResolver locationResolver;
+    private LocationCapacityLedger capacityLedger;
     private CreateWarehouseUseCase useCase;
 
     @BeforeEach
     void setup() {
         warehouseStore = mock(WarehouseStore.class);
         locationResolver = mock(LocationResolver.class);
-        useCase = new CreateWarehouseUseCase(warehouseStore, locationResolver);
+        capacityLedger = mock(LocationCapacityLedger.class);
+        useCase = new CreateWarehouseUseCase(warehouseStore, locationResolver, capacityLedger);
     }
 
     @Test
@@ -41,15 +41,58 @@ class CreateWarehouseUseCaseTest {
                 .thenReturn(location);
         when(warehouseStore.findByBusinessUnitCode("WH-1"))
                 .thenReturn(null);
-        when(warehouseStore.getAll())
-                .thenReturn(new ArrayList<>());
+        when(capacityLedger.lock("AMSTERDAM-001"))
+                .thenReturn(new LocationOccupancy(0, 0));
 
         useCase.create(warehouse);
 
         verify(warehouseStore).create(warehouse);
+        verify(capacityLedger).adjust("AMSTERDAM-001", 1, 50);
         assertNotNull(warehouse.createdAt);
     }
 
+    @Test
+    void shouldFailWhenSummedCapacityExceedsLocationLimit() {
+        Warehouse warehouse = new Warehouse();
+        warehouse.businessUnitCode = "WH-1";
+        warehouse.location = "AMSTERDAM-001";
+        warehouse.capacity = 50;
+        warehouse.stock = 10;
+
+        Location location = new Location("AMSTERDAM-001", 5, 100);
+
+        when(locationResolver.resolveByIdentifier("AMSTERDAM-001"))
+                .thenReturn(location);
+        when(capacityLedger.lock("AMSTERDAM-001"))
+                .thenReturn(new LocationOccupancy(2, 60));
+
+        IllegalStateException exception = assertThrows(
+                IllegalStateException.class,
+                () -> useCase.create(warehouse)
+        );
+        assertEquals("Total capacity exceeds location limit", exception.getMessage());
+        verify(warehouseStore, never()).create(any());
+        verify(capacityLedger, never()).adjust(anyString(), anyInt(), anyInt());
+    }
+
+    @Test
+    void shouldStoreCanonicalLocationIdentifier() {
+        Warehouse warehouse = new Warehouse();
+        warehouse.businessUnitCode = "WH-1";
+        warehouse.location = "amsterdam-001";
+        warehouse.capacity = 50;
+        warehouse.stock = 10;
+
+        when(locationResolver.resolveByIdentifier("amsterdam-001"))
+                .thenReturn(new Location("AMSTERDAM-001", 5, 100));
+        when(capacityLedger.lock("AMSTERDAM-001"))
+                .thenReturn(new LocationOccupancy(0, 0));
+
+        useCase.create(warehouse);
+
+        assertEquals("AMSTERDAM-001", warehouse.location);
+    }
+
     @Test
     void shouldFailWhenLocationInvalid() {
         Warehouse w = new Warehouse();
@@ -106,17 +149,12 @@ class CreateWarehouseUseCaseTest {
 
         Location location = new Location("AMSTERDAM-001", 2, 100); // Max 2 warehouses
 
-        Warehouse existing1 = new Warehouse();
-        existing1.location = "AMSTERDAM-001";
-        Warehouse existing2 = new Warehouse();
-        existing2.location = "AMSTERDAM-001";
-
         when(locationResolver.resolveByIdentifier("AMSTERDAM-001"))
                 .thenReturn(location);
         when(warehouseStore.findByBusinessUnitCode("WH-NEW"))
                 .thenReturn(null);
-        when(warehouseStore.getAll())
-                .thenReturn(List.of(existing1, existing2));
+        when(capacityLedger.lock("AMSTERDAM-001"))
+                .thenReturn(new LocationOccupancy(2, 60));
 
         IllegalStateException exception = assertThrows(
                 IllegalStateException.class,
@@ -139,8 +177,8 @@ class CreateWarehouseUseCaseTest {
                 .thenReturn(location);
         when(warehouseStore.findByBusinessUnitCode("WH-1"))
                 .thenReturn(null);
-        when(warehouseStore.getAll())
-                .thenReturn(new ArrayList<>());
+        when(capacityLedger.lock("AMSTERDAM-001"))
+                .thenReturn(new LocationOccupancy(0, 0));
 
         IllegalArgumentException exception = assertThrows(
                 IllegalArgumentException.class,
@@ -163,8 +201,8 @@ class CreateWarehouseUseCaseTest {
                 .thenReturn(location);
         when(warehouseStore.findByBusinessUnitCode("WH-1"))
                 .thenReturn(null);
-        when(warehouseStore.getAll())
-                .thenReturn(new ArrayList<>());
+        when(capacityLedger.lock("AMSTERDAM-001"))
+                .thenReturn(new LocationOccupancy(0, 0));
 
         IllegalArgumentException exception = assertThrows(
                 IllegalArgumentException.class,
@@ -207,8 +245,8 @@ class CreateWarehouseUseCaseTest {
                 .thenReturn(location);
         when(warehouseStore.findByBusinessUnitCode("WH-ZERO"))
                 .thenReturn(null);
-        when(warehouseStore.getAll())
-                .thenReturn(new ArrayList<>());
+        when(capacityLedger.lock("AMSTERDAM-001"))
+                .thenReturn(new LocationOccupancy(0, 0));
 
         useCase.create(warehouse);
 
@@ -229,8 +267,8 @@ class CreateWarehouseUseCaseTest {
                 .thenReturn(location);
         when(warehouseStore.findByBusinessUnitCode("WH-MAX"))
                 .thenReturn(null);
-        when(warehouseStore.getAll())
-                .thenReturn(new ArrayList<>());
+        when(capacityLedger.lock("AMSTERDAM-001"))
+                .thenReturn(new LocationOccupancy(0, 0));
 
         useCase.create(warehouse);
 
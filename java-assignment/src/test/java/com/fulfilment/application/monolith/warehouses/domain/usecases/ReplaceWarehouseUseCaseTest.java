@@ -1,7 +1,12 @@
 package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationOccupancy;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationCapacityLedger;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import jakarta.persistence.OptimisticLockException;
 import jakarta.ws.rs.WebApplicationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,12 +17,21 @@ import static org.mockito.Mockito.*;
 class ReplaceWarehouseUseCaseTest {
 
     private WarehouseStore warehouseStore;
+    private LocationResolver locationResolver;
+    private LocationCapacityLedger capacityLedger;
     private ReplaceWarehouseUseCase useCase;
 
     @BeforeEach
     void setUp() {
         warehouseStore = mock(WarehouseStore.class);
-        useCase = new ReplaceWarehouseUseCase(warehouseStore);
+        locationResolver = mock(LocationResolver.class);
+        capacityLedger = mock(LocationCapacityLedger.class);
+        useCase = new ReplaceWarehouseUseCase(warehouseStore, locationResolver, capacityLedger);
+
+        when(locationResolver.resolveByIdentifier("LOC1")).thenReturn(new Location("LOC1", 2, 200));
+        when(locationResolver.resolveByIdentifier("LOC2")).thenReturn(new Location("LOC2", 2, 200));
+        when(capacityLedger.lock("LOC1")).thenReturn(new LocationOccupancy(1, 100));
+        when(capacityLedger.lock("LOC2")).thenReturn(new LocationOccupancy(0, 0));
     }
 
     @Test
@@ -34,13 +48,77 @@ class ReplaceWarehouseUseCaseTest {
 
         useCase.replace(newWarehouse);
 
-        // verify existing archived
-        verify(warehouseStore).update(existing);
-
-        // verify new created
-        verify(warehouseStore).create(newWarehouse);
+        // archive and insert go to the store together
+        verify(warehouseStore).replace(existing, newWarehouse);
+        verify(warehouseStore, never()).update(any());
+        verify(warehouseStore, never()).create(any());
 
         assertNotNull(existing.archivedAt);
+
+        // ledger moves the warehouse from LOC1 to LOC2
+        verify(capacityLedger).adjust("LOC1", -1, -100);
+        verify(capacityLedger).adjust("LOC2", 1, 150);
+    }
+
+    @Test
+    void shouldDiscountReplacedWarehouseAtSameLocation() {
+
+        Warehouse existing =
+                new Warehouse("BU1", "LOC1", 100, 10, 1L);
+
+        // 100 of the 200 are the replaced warehouse itself
+        Warehouse newWarehouse =
+                new Warehouse("BU1", "LOC1", 200, 10, 1L);
+
+        when(warehouseStore.findByBusinessUnitCode("BU1"))
+                .thenReturn(existing);
+
+        useCase.replace(newWarehouse);
+
+        verify(warehouseStore).replace(existing, newWarehouse);
+        verify(capacityLedger).adjust("LOC1", -1, -100);
+        verify(capacityLedger).adjust("LOC1", 1, 200);
+    }
+
+    @Test
+    void shouldThrowIfTargetLocationCapacityExceeded() {
+
+        Warehouse existing =
+                new Warehouse("BU1", "LOC1", 100, 10, 1L);
+
+        Warehouse newWarehouse =
+                new Warehouse("BU1", "LOC2", 150, 10, 1L);
+
+        when(warehouseStore.findByBusinessUnitCode("BU1"))
+                .thenReturn(existing);
+        when(capacityLedger.lock("LOC2")).thenReturn(new LocationOccupancy(1, 100));
+
+        WebApplicationException ex = assertThrows(WebApplicationException.class,
+                () -> useCase.replace(newWarehouse));
+
+        assertEquals(422, ex.getResponse().getStatus());
+        verify(warehouseStore, never()).replace(any(), any());
+    }
+
+    @Test
+    void shouldRejectConcurrentReplace() {
+
+        Warehouse existing =
+                new Warehouse("BU1", "LOC1", 100, 10, 1L);
+
+        Warehouse newWarehouse =
+                new Warehouse("BU1", "LOC2", 150, 10, 1L);
+
+        when(warehouseStore.findByBusinessUnitCode("BU1"))
+                .thenReturn(existing);
+        doThrow(new OptimisticLockException())
+                .when(warehouseStore).replace(existing, newWarehouse);
+
+        WebApplicationException ex = assertThrows(WebApplicationException.class,
+                () -> useCase.replace(newWarehouse));
+
+        assertEquals(409, ex.getResponse().getStatus());
+        verify(capacityLedger, never()).adjust(anyString(), anyInt(), anyInt());
     }
 
     @Test